@@ -0,0 +1,52 @@
+package sudoku;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of SudokuQuiz.newQuiz() at each level.
+ * The quiz is seeded, so every run creates the same sequence of quizzes.
+ * newUniqueQuiz at level 7 measures the retries up to their limit and the
+ * carving after them, as random erasures almost never leave a unique quiz at
+ * 18 clues.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeneratorBenchmark {
+    @Param({ "1", "2", "3", "4", "5", "6", "7" })
+    public int level; // Quiz level.
+
+    private SudokuQuiz quiz; // Quiz to create.
+
+    @Setup
+    public void setup() {
+        quiz = new SudokuQuiz(3, level, 1L);
+    }
+
+    @Benchmark
+    public int newQuiz() {
+        quiz.newQuiz();
+        return quiz.getValue(0, 0);
+    }
+
+    @Benchmark
+    public int newUniqueQuiz() {
+        quiz.newQuiz(true);
+        return quiz.getValue(0, 0);
+    }
+}
@@ -0,0 +1,59 @@
+package sudoku;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks of the board queries the UI calls on every repaint.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QuizBenchmark {
+    private SudokuQuiz quiz; // Quiz of the first easy puzzle.
+
+    @Setup
+    public void setup() {
+        quiz = new SudokuQuiz(3, 5);
+        quiz.loadQuiz(SudokuCorpus.load("easy")[0]);
+    }
+
+    // Try every value on every blank cell, so each call reaches the occupancy counters.
+    @Benchmark
+    public void isPossible(Blackhole blackhole) {
+        for (int row = 0; row < 9; row++) {
+            for (int col = 0; col < 9; col++) {
+                if (quiz.isFixed(row, col)) {
+                    continue;
+                }
+                for (int value = 1; value <= 9; value++) {
+                    blackhole.consume(quiz.isPossible(row, col, value));
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public int[] getRemainings() {
+        return quiz.getRemainings();
+    }
+
+    @Benchmark
+    public int getRemaining() {
+        return quiz.getRemaining();
+    }
+}
@@ -0,0 +1,80 @@
+package sudoku;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks of SudokuSolver.getHints(), the first hint and SudokuSearch over
+ * the corpus.
+ * Each invocation handles every puzzle of the category once.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SolverBenchmark {
+    @Param({ "easy", "hard", "seventeen" })
+    public String category; // Category of the corpus.
+
+    private SudokuQuiz[] quizzes; // Quizzes of the category.
+    private int[][][] puzzles; // Puzzles of the category.
+    private int[][] board; // Scratch board for SudokuSearch.solve().
+    private SudokuSearch search; // Deterministic search.
+
+    @Setup
+    public void setup() {
+        puzzles = SudokuCorpus.load(category);
+        quizzes = new SudokuQuiz[puzzles.length];
+        for (int i = 0; i < puzzles.length; i++) {
+            quizzes[i] = new SudokuQuiz(3, 5);
+            quizzes[i].loadQuiz(puzzles[i]);
+        }
+        board = new int[9][9];
+        search = new SudokuSearch(3);
+    }
+
+    @Benchmark
+    public void getHints(Blackhole blackhole) {
+        for (SudokuQuiz quiz : quizzes) {
+            blackhole.consume(new SudokuSolver(quiz).getHints());
+        }
+    }
+
+    @Benchmark
+    public void firstHint(Blackhole blackhole) {
+        for (SudokuQuiz quiz : quizzes) {
+            blackhole.consume(new SudokuSolver(quiz).nextHint());
+        }
+    }
+
+    @Benchmark
+    public void solve(Blackhole blackhole) {
+        for (int[][] puzzle : puzzles) {
+            for (int row = 0; row < 9; row++) {
+                System.arraycopy(puzzle[row], 0, board[row], 0, 9);
+            }
+            blackhole.consume(search.solve(board));
+        }
+    }
+
+    @Benchmark
+    public void isUnique(Blackhole blackhole) {
+        for (int[][] puzzle : puzzles) {
+            blackhole.consume(search.isUnique(puzzle));
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package sudoku;
+
+/**
+ * Fixed corpus of 9x9 puzzles for the benchmarks, one 81 character line per
+ * puzzle with '.' or '0' for blank cells.
+ */
+public class SudokuCorpus {
+    // Puzzles solved by the Nacked and Hidden Singles.
+    static final String[] EASY = {
+            "003020600900305001001806400008102900700000008006708200002609500800203009005010300",
+            "..9748...7.........2.1.9.....7...24..64.1.59..98...3.....8.3.2.........6...2759..",
+            "200080300060070084030500209000105408000000000402706000301007040720040060004010003",
+    };
+
+    // Puzzles which need guessing.
+    static final String[] HARD = {
+            "8..........36......7..9.2...5...7.......457.....1...3...1....68..85...1..9....4..",
+            "4.....8.5.3..........7......2.....6.....8.4......1.......6.3.7.5..2.....1.4......",
+            "52...6.........7.13...........4..8..6......5...........418.........3..2...87.....",
+    };
+
+    // Puzzles with the minimum number of clues.
+    static final String[] SEVENTEEN = {
+            "000000010400000000020000000000050407008000300001090000300400200050100000000806000",
+            "000000010400000000020000000000050604008000300001090000300400200050100000000807000",
+            "000000012000035000000600070700000300000400800100000000000120000080000040050000600",
+    };
+
+    /**
+     * Get the puzzles of the category.
+     * 
+     * @param category "easy", "hard" or "seventeen".
+     * @return The puzzles.
+     */
+    static int[][][] load(String category) {
+        String[] lines;
+        switch (category) {
+            case "easy":
+                lines = EASY;
+                break;
+            case "hard":
+                lines = HARD;
+                break;
+            case "seventeen":
+                lines = SEVENTEEN;
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown category: " + category);
+        }
+
+        int[][][] puzzles = new int[lines.length][9][9];
+        for (int i = 0; i < lines.length; i++) {
+            for (int cell = 0; cell < 81; cell++) {
+                char c = lines[i].charAt(cell);
+                puzzles[i][cell / 9][cell % 9] = c >= '1' && c <= '9' ? c - '0' : 0;
+            }
+        }
+        return puzzles;
+    }
+}
@@ -0,0 +1,244 @@
+package sudoku;
+
+import java.io.BufferedOutputStream;
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Paths;
+import javax.swing.SwingUtilities;
+
+public class Sudoku {
+    public static void main(String[] argv) {
+        final String usage = "Usage: java Sudoku [repl | swing] [size]\n" +
+                "       java Sudoku batch <input> [output]\n" +
+                "       java Sudoku import <input> <store>\n" +
+                "       java Sudoku server [port]\n" +
+                "  repl: run in cui repl mode\n" +
+                "  swing: run in gui swing mode\n" +
+                "  size: box size, 3 for 9x9 (default), 4 for 16x16, 5 for 25x25\n" +
+                "  batch: solve a file of puzzles, one 81 character line per puzzle, or a puzzle store\n" +
+                "  import: append a file of puzzles to a puzzle store, skipping equivalent puzzles\n" +
+                "  server: serve generate, solve, hint, validate and metrics over http, port 8080 by default";
+        final int level = 5; // Quiz level. (1 .. 7)
+
+        if ((argv.length == 2 || argv.length == 3) && argv[0].equals("batch")) {
+            batch(argv[1], argv.length == 3 ? argv[2] : null);
+            return;
+        }
+        if (argv.length == 3 && argv[0].equals("import")) {
+            importLines(argv[1], argv[2]);
+            return;
+        }
+
+        if ((argv.length == 1 || argv.length == 2) && argv[0].equals("server")) {
+            try {
+                server(argv.length == 2 ? Integer.parseInt(argv[1]) : 8080);
+            } catch (NumberFormatException e) {
+                System.out.println(usage);
+                System.exit(1);
+            }
+            return;
+        }
+
+        if (argv.length < 1 || argv.length > 2) {
+            System.out.println(usage);
+            System.exit(1);
+        }
+        int boxSize = 3;
+        if (argv.length == 2) {
+            try {
+                boxSize = Integer.parseInt(argv[1]);
+            } catch (NumberFormatException e) {
+                System.out.println(usage);
+                System.exit(1);
+            }
+        }
+        final int size = boxSize; // Size of the quiz.
+        switch (argv[0]) {
+            case "repl":
+                repl(size, level);
+                break;
+            case "swing":
+                SwingUtilities.invokeLater(new Runnable() {
+                    @Override
+                    public void run() {
+                        new SudokuBoard(size, level);
+                    }
+                });
+                break;
+            default:
+                System.out.println(usage);
+                System.exit(1);
+        }
+    }
+
+    /**
+     * Sudoku batch mode.
+     * 
+     * @param input  The file of puzzles.
+     * @param output The file of results, or null for the standard output.
+     */
+    static public void batch(String input, String output) {
+        SudokuBatch batch = new SudokuBatch(3, Runtime.getRuntime().availableProcessors());
+        try (OutputStream out = output == null ? new FileOutputStream(FileDescriptor.out)
+                : new FileOutputStream(output)) {
+            long start = System.nanoTime();
+            long count;
+            if (SudokuStore.isStore(Paths.get(input))) {
+                try (SudokuStore store = new SudokuStore(Paths.get(input))) {
+                    count = batch.run(store, new BufferedOutputStream(out, 1 << 16));
+                }
+            } else {
+                try (InputStream in = new FileInputStream(input)) {
+                    count = batch.run(in, new BufferedOutputStream(out, 1 << 16));
+                }
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.err.printf("%d puzzles in %.3f s (%.0f puzzles/s): %d logic, %d search, %d unsolvable%n",
+                    count, seconds, count / seconds, batch.getLogic(), batch.getSearch(), batch.getUnsolvable());
+        } catch (IOException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Append a file of puzzles to a puzzle store, skipping the puzzles
+     * equivalent to one before them in the file.
+     * 
+     * @param input The file of puzzles, one 81 character line per puzzle.
+     * @param path  The store, created if it does not exist.
+     */
+    static public void importLines(String input, String path) {
+        try (InputStream in = new FileInputStream(input); SudokuStore store = new SudokuStore(Paths.get(path))) {
+            long count = store.importLines(3, in, new SudokuFingerprintSet());
+            System.err.printf("%d puzzles imported, %d puzzles in the store%n", count, store.size());
+        } catch (IOException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Sudoku server mode, serving until the process is stopped.
+     * 
+     * @param port The port.
+     */
+    static public void server(int port) {
+        try {
+            final SudokuServer server = new SudokuServer(port, 1 << 16);
+            Runtime.getRuntime().addShutdownHook(new Thread() {
+                @Override
+                public void run() {
+                    server.stop();
+                }
+            });
+            server.start();
+            System.err.printf("Serving on port %d%n", server.getPort());
+        } catch (IOException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Sudoku repl mode.
+     * 
+     * @param size  The size of the quiz.
+     * @param level The level of the quiz.
+     */
+    static public void repl(int size, int level) {
+        final String PROMPT = "> ";
+        final String help = "Available commands:\n" +
+                " 1. new\n" +
+                " 2. reset\n" +
+                " 3. solve\n" +
+                " 4. hint\n" +
+                " 5. set <row> <col> <value>\n" +
+                " 6. undo\n" +
+                " 7. quit\n";
+
+        SudokuQuiz quiz = new SudokuQuiz(size, level);
+        SudokuSession session = new SudokuSession(quiz);
+        quiz.newQuiz();
+        while (true) {
+            int row, col, value;
+
+            quiz.dumpBoard();
+            System.out.print(PROMPT);
+            String line = System.console().readLine();
+            if (line == null)
+                break;
+
+            String[] tokens = line.split(" ");
+            switch (tokens[0]) {
+                case "new":
+                    quiz.newQuiz();
+                    break;
+                case "reset":
+                    quiz.resetQuiz();
+                    break;
+                case "solve":
+                    if (quiz.getRemaining() > 0) {
+                        SudokuSolver solver = new SudokuSolver(quiz);
+                        for (SudokuSolver.Hint hint : solver) {
+                            quiz.setValue(hint.row, hint.col, hint.value);
+                        }
+                        if (quiz.getRemaining() > 0) {
+                            System.out.println("Can’t solve it any more.");
+                        }
+                    }
+                    break;
+                case "hint":
+                    if (quiz.getRemaining() > 0) {
+                        SudokuSolver.Hint hint = session.getHint();
+                        if (hint == null) {
+                            System.out.println("No hints.");
+                        } else {
+                            System.out.println("row: " + hint.row + ", col: " + hint.col + ", value: " + hint.value);
+                        }
+                    }
+                    break;
+                case "set":
+                    try {
+                        row = Integer.parseInt(tokens[1]);
+                        col = Integer.parseInt(tokens[2]);
+                        value = Integer.parseInt(tokens[3]);
+                        int side = quiz.getSide();
+                        if (row < 0 || row >= side || col < 0 || col >= side || value < 1 || value > side) {
+                            throw new RuntimeException("Invalid row or column or value");
+                        }
+                        if (quiz.isFixed(row, col)) {
+                            System.out.println("row = " + row + " col = " + col + " is fixed.");
+                        } else {
+                            boolean valid = quiz.setValue(row, col, value);
+                            System.out.println("Set " + row + " " + col + " " + value + " returns " + valid);
+                            if (valid && quiz.getRemaining() == 0) {
+                                System.out.println("Solved!");
+                            }
+                        }
+                    } catch (Exception e) {
+                        System.out.println("Usage: set <row> <col> <value>");
+                    }
+                    break;
+                case "undo":
+                    SudokuQuiz.Operation operation = quiz.undo();
+                    if (operation == null) {
+                        System.out.println("No more undo");
+                    } else {
+                        System.out.println("Undo " + operation.row + " " + operation.col + " "
+                                + operation.newValue);
+                    }
+                    break;
+                case "quit":
+                    System.exit(0);
+                    break;
+                default:
+                    System.out.println(help);
+            }
+        }
+    }
+}
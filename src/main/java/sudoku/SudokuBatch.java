@@ -0,0 +1,393 @@
+package sudoku;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Solve a file of puzzles, one line of side * side characters per puzzle,
+ * '1' .. '9' for values and '.' or '0' for blank cells, or the puzzles of a
+ * SudokuStore.
+ * Lines are read into byte blocks without creating a String per puzzle, the
+ * blocks are solved in parallel, and the results are written in input order.
+ * Each result line is the solution followed by how it was solved:
+ * "logic" by SudokuSolver alone, "search" with the backtracking fallback, or
+ * "unsolvable" with the input unchanged. A malformed puzzle, a line of the
+ * wrong length or a store puzzle of another size, is written as side * side
+ * '.' characters and "unsolvable", so that every result line has the same
+ * length.
+ */
+public class SudokuBatch {
+    private static final int BLOCK = 1024; // Number of puzzles per block.
+    private static final byte LOGIC = 1, SEARCH = 2, UNSOLVABLE = 3; // How a puzzle was solved.
+    private static final byte[][] STATUS = { null, ",logic\n".getBytes(), ",search\n".getBytes(),
+            ",unsolvable\n".getBytes() }; // Status text of each result line.
+
+    private final int size; // Quiz size.
+    private final int side; // Number of cells in a row, column or box.
+    private final int threads; // Number of worker threads.
+    private final SudokuPipeline pipeline; // Strategies of the solvers, shared by the workers.
+    private final ThreadLocal<Worker> workers; // Solver state of each worker thread.
+
+    private final byte[] buffer = new byte[1 << 16]; // Input buffer.
+    private int position, limit; // Next byte and end of the data in the input buffer.
+    private long logic, search, unsolvable; // Number of puzzles by how they were solved.
+
+    /**
+     * Constructor with all strategies, ordered by their measures over the
+     * batch.
+     * 
+     * @param size    The quiz size, 3 for the common 81 character lines.
+     * @param threads The number of worker threads.
+     */
+    public SudokuBatch(int size, int threads) {
+        this(size, threads, SudokuPipeline.ALL.adaptive());
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param size     The quiz size, 3 for the common 81 character lines.
+     * @param threads  The number of worker threads.
+     * @param pipeline The strategies to try before the backtracking fallback,
+     *                 for example SudokuPipeline.SINGLES for fast grading.
+     */
+    public SudokuBatch(int size, int threads, SudokuPipeline pipeline) {
+        if (size != 3) {
+            throw new IllegalArgumentException("Only 9x9 puzzles can be written as digit lines.");
+        }
+        this.size = size;
+        this.side = size * size;
+        this.threads = threads;
+        this.pipeline = pipeline;
+        this.workers = new ThreadLocal<Worker>() {
+            @Override
+            protected Worker initialValue() {
+                return new Worker();
+            }
+        };
+    }
+
+    /**
+     * Solve the puzzles of the input and write the results to the output.
+     * 
+     * @param in  The input.
+     * @param out The output.
+     * @return The number of puzzles.
+     * @throws IOException If the input cannot be read or the output cannot be
+     *                     written.
+     */
+    public long run(final InputStream in, OutputStream out) throws IOException {
+        position = limit = 0;
+        return run(new Source() {
+            @Override
+            public Block next() throws IOException {
+                return read(in);
+            }
+        }, out);
+    }
+
+    /**
+     * Solve the puzzles of the store in order and write the results to the
+     * output. Puzzles of another size are written as unsolvable.
+     * 
+     * @param store The store.
+     * @param out   The output.
+     * @return The number of puzzles.
+     * @throws IOException If the store cannot be read or the output cannot be
+     *                     written.
+     */
+    public long run(final SudokuStore store, OutputStream out) throws IOException {
+        return run(new Source() {
+            private long next; // Number of the next puzzle in the store.
+
+            @Override
+            public Block next() throws IOException {
+                Block block = read(store, next);
+                next += block.count;
+                return block;
+            }
+        }, out);
+    }
+
+    /**
+     * Solve the puzzles of the source and write the results to the output.
+     * 
+     * @param source The source of the blocks of puzzles.
+     * @param out    The output.
+     * @return The number of puzzles.
+     * @throws IOException If the source cannot be read or the output cannot be
+     *                     written.
+     */
+    private long run(Source source, OutputStream out) throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        Deque<Future<Block>> pending = new ArrayDeque<>();
+        long count = 0;
+        logic = search = unsolvable = 0;
+        try {
+            while (true) {
+                Block block = source.next();
+                if (block.count == 0) {
+                    break;
+                }
+                count += block.count;
+                pending.add(executor.submit(block));
+
+                // Keep a bounded number of blocks in flight, writing the oldest first.
+                while (pending.size() > threads * 2) {
+                    write(pending.removeFirst(), out);
+                }
+            }
+            while (!pending.isEmpty()) {
+                write(pending.removeFirst(), out);
+            }
+            out.flush();
+        } finally {
+            executor.shutdownNow();
+        }
+        return count;
+    }
+
+    /**
+     * Get the number of puzzles solved by SudokuSolver alone in the last run.
+     * 
+     * @return The number of puzzles.
+     */
+    public long getLogic() {
+        return logic;
+    }
+
+    /**
+     * Get the number of puzzles which needed the backtracking fallback in the
+     * last run.
+     * 
+     * @return The number of puzzles.
+     */
+    public long getSearch() {
+        return search;
+    }
+
+    /**
+     * Get the number of unsolvable or malformed puzzles in the last run.
+     * 
+     * @return The number of puzzles.
+     */
+    public long getUnsolvable() {
+        return unsolvable;
+    }
+
+    /**
+     * Read the next block of puzzles. Empty lines are skipped.
+     * 
+     * @param in The input.
+     * @return The block, with no puzzles at the end of the input.
+     * @throws IOException If the input cannot be read.
+     */
+    private Block read(InputStream in) throws IOException {
+        Block block = new Block();
+        int cells = side * side;
+        int length = 0;
+        while (block.count < BLOCK) {
+            if (position == limit) {
+                limit = Math.max(in.read(buffer), 0);
+                position = 0;
+            }
+            int c = limit == 0 ? -1 : buffer[position++];
+            if (c == '\n' || c == -1) {
+                if (length > 0) {
+                    block.malformed[block.count++] = length != cells;
+                    length = 0;
+                }
+                if (c == -1) {
+                    break;
+                }
+            } else if (c != '\r') {
+                if (length < cells) {
+                    block.cells[block.count * cells + length] = (byte) c;
+                }
+                length++;
+            }
+        }
+        return block;
+    }
+
+    /**
+     * Read the next block of puzzles from the store, as digit characters.
+     * 
+     * @param store The store.
+     * @param first The number of the first puzzle of the block.
+     * @return The block, with no puzzles at the end of the store.
+     * @throws IOException If the store cannot be read.
+     */
+    private Block read(SudokuStore store, long first) throws IOException {
+        Block block = new Block();
+        int cells = side * side;
+        byte[] quiz = new byte[cells];
+        long last = Math.min(store.size(), first + BLOCK);
+        for (long number = first; number < last; number++) {
+            int offset = block.count * cells;
+            if (store.getSize(number) != size) {
+                block.malformed[block.count++] = true;
+                continue;
+            }
+            store.read(number, quiz);
+            for (int cell = 0; cell < cells; cell++) {
+                block.cells[offset + cell] = quiz[cell] == 0 ? (byte) '.' : (byte) ('0' + quiz[cell]);
+            }
+            block.count++;
+        }
+        return block;
+    }
+
+    /**
+     * Write the results of the block.
+     * 
+     * @param future The block being solved.
+     * @param out    The output.
+     * @throws IOException If the output cannot be written.
+     */
+    private void write(Future<Block> future, OutputStream out) throws IOException {
+        Block block;
+        try {
+            block = future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted.", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to solve.", e.getCause());
+        }
+        for (int i = 0; i < block.count; i++) {
+            out.write(block.cells, i * side * side, side * side);
+            out.write(STATUS[block.status[i]]);
+            switch (block.status[i]) {
+                case LOGIC:
+                    logic++;
+                    break;
+                case SEARCH:
+                    search++;
+                    break;
+                default:
+                    unsolvable++;
+            }
+        }
+    }
+
+    /**
+     * Source of the blocks of puzzles.
+     */
+    private interface Source {
+        /**
+         * Read the next block.
+         * 
+         * @return The block, with no puzzles at the end of the input.
+         * @throws IOException If the input cannot be read.
+         */
+        Block next() throws IOException;
+    }
+
+    /**
+     * Block of puzzles, solved in place.
+     */
+    private class Block implements Callable<Block> {
+        final byte[] cells = new byte[BLOCK * side * side]; // Characters of the puzzles.
+        final boolean[] malformed = new boolean[BLOCK]; // true if the line has a wrong length.
+        final byte[] status = new byte[BLOCK]; // How each puzzle was solved.
+        int count; // Number of puzzles.
+
+        @Override
+        public Block call() {
+            Worker worker = workers.get();
+            for (int i = 0; i < count; i++) {
+                if (malformed[i]) {
+                    Arrays.fill(cells, i * side * side, (i + 1) * side * side, (byte) '.');
+                    status[i] = UNSOLVABLE;
+                } else {
+                    status[i] = worker.solve(cells, i * side * side);
+                }
+            }
+            return this;
+        }
+    }
+
+    /**
+     * Solver state of a worker thread.
+     */
+    private class Worker {
+        private final SudokuQuiz quiz = new SudokuQuiz(size, 1); // Quiz to load the puzzles into.
+        private final SudokuSearch fallback = new SudokuSearch(size); // Backtracking fallback.
+        private final int[][] grid = new int[side][side]; // Scratch grid.
+        private final long[] used = new long[side * 3]; // Values used in each row, column and box.
+
+        /**
+         * Solve the puzzle in place.
+         * 
+         * @param cells  The characters of the puzzles.
+         * @param offset The offset of the puzzle.
+         * @return How the puzzle was solved.
+         */
+        byte solve(byte[] cells, int offset) {
+            for (int cell = 0; cell < side * side; cell++) {
+                byte c = cells[offset + cell];
+                if (c >= '1' && c <= '9') {
+                    grid[cell / side][cell % side] = c - '0';
+                } else if (c == '.' || c == '0') {
+                    grid[cell / side][cell % side] = 0;
+                } else {
+                    return UNSOLVABLE;
+                }
+            }
+
+            quiz.loadQuiz(grid);
+            for (SudokuSolver.Hint hint : new SudokuSolver(quiz, pipeline)) {
+                grid[hint.row][hint.col] = hint.value;
+            }
+            byte status = LOGIC;
+            for (int[] row : grid) {
+                for (int value : row) {
+                    if (value == 0) {
+                        status = SEARCH;
+                    }
+                }
+            }
+            if (status == SEARCH ? !fallback.solve(grid) : !isSolved()) {
+                return UNSOLVABLE;
+            }
+
+            for (int cell = 0; cell < side * side; cell++) {
+                cells[offset + cell] = (byte) ('0' + grid[cell / side][cell % side]);
+            }
+            return status;
+        }
+
+        /**
+         * Check the filled grid, as the hints of a puzzle with conflicting values
+         * cannot be trusted.
+         * 
+         * @return true if no value appears twice in a row, column or box.
+         */
+        private boolean isSolved() {
+            Arrays.fill(used, 0);
+            for (int row = 0; row < side; row++) {
+                for (int col = 0; col < side; col++) {
+                    long bit = 1L << grid[row][col];
+                    int box = side * 2 + row / size * size + col / size;
+                    if (((used[row] | used[side + col] | used[box]) & bit) != 0) {
+                        return false;
+                    }
+                    used[row] |= bit;
+                    used[side + col] |= bit;
+                    used[box] |= bit;
+                }
+            }
+            return true;
+        }
+    }
+}
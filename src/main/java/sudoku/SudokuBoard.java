@@ -1,3 +1,5 @@
+package sudoku;
+
 import java.awt.BorderLayout;
 import java.awt.Color;
 import java.awt.Dimension;
@@ -12,18 +14,21 @@ import javax.swing.JFrame;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.SwingUtilities;
-import javax.swing.Timer;
 
 public class SudokuBoard {
     private final int size; // Size of the quiz.
     private final int level; // Quiz level. (1 .. 7)
     private SudokuQuiz quiz; // Quiz.
+    private final SudokuSession session; // Solver session for hints.
 
     private final JFrame frame; // The main frame.
     private Cell[][] cells; // Cells of the board.
+    private Number[] numbers; // Number buttons.
+    private final SudokuIndex index; // Index tables of the size.
     private Cell selectedCell = null; // Currently selected cell.
 
     private Semaphore semaphore = new Semaphore(1); // Only one can solve at a time.
+    private volatile SudokuSolver solving; // Solver of the running solveQuiz(), cancelled by a new or reset quiz.
 
     private final Color selectedCellColor = new Color(135, 206, 250); // Light skyblue
     private final Color fixedCellColor = new Color(149, 186, 238); // Blue onix
@@ -43,6 +48,8 @@ public class SudokuBoard {
         this.size = size;
         this.level = level;
         this.quiz = new SudokuQuiz(this.size, this.level);
+        this.index = SudokuIndex.of(size);
+        this.session = new SudokuSession(quiz);
 
         frame = new JFrame("Sudoku");
         frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
@@ -50,6 +57,27 @@ public class SudokuBoard {
         frame.setResizable(false);
 
         buildFrame();
+        quiz.addListener(new SudokuQuiz.Listener() {
+            @Override
+            public void boardChanged(int type, int[] changed) {
+                switch (type) {
+                    case SudokuQuiz.SET:
+                    case SudokuQuiz.UNDO:
+                        repaintCell(changed[0]);
+                        break;
+                    case SudokuQuiz.RESET:
+                        cancelSolving();
+                        for (int cell : changed) {
+                            repaintCell(cell);
+                        }
+                        break;
+                    case SudokuQuiz.NEW:
+                        cancelSolving();
+                        setBoard();
+                        break;
+                }
+            }
+        });
         newQuiz();
 
         frame.pack();
@@ -100,14 +128,14 @@ public class SudokuBoard {
             for (int col = 0; col < blocks[row].length; col++) {
                 JPanel block = new JPanel();
                 block = new JPanel();
-                block.setLayout(new GridLayout(3, 3, 0, 0));
+                block.setLayout(new GridLayout(size, size, 0, 0));
                 block.setBorder(BorderFactory.createEmptyBorder(0, 0, 0, 0));
                 blocks[row][col] = block;
                 boardPanel.add(block);
             }
         }
 
-        cells = new Cell[size * 3][size * 3];
+        cells = new Cell[size * size][size * size];
         for (int row = 0; row < cells.length; row++) {
             for (int col = 0; col < cells[row].length; col++) {
                 Cell cell = new Cell(row, col);
@@ -119,15 +147,15 @@ public class SudokuBoard {
                     }
                 });
                 cells[row][col] = cell;
-                blocks[row / 3][col / 3].add(cell);
+                blocks[row / size][col / size].add(cell);
             }
         }
 
         JPanel numberPanel = new JPanel();
         frame.add(numberPanel, BorderLayout.SOUTH);
 
-        Number[] numbers = new Number[9];
-        for (int i = 1; i <= 9; i++) {
+        numbers = new Number[size * size];
+        for (int i = 1; i <= size * size; i++) {
             Number number = new Number(i);
             number.addActionListener(new ActionListener() {
                 @Override
@@ -139,18 +167,6 @@ public class SudokuBoard {
             numbers[i - 1] = number;
             numberPanel.add(number);
         }
-
-        Timer timer = new Timer(500, new ActionListener() {
-            @Override
-            public void actionPerformed(ActionEvent e) {
-                int[] reminings = quiz.getRemainings();
-                for (int i = 1; i <= 9; i++) {
-                    numbers[i - 1].setEnabled(reminings[i - 1] != 0);
-                }
-                repaintBoard();
-            }
-        });
-        timer.start();
     }
 
     /**
@@ -173,29 +189,64 @@ public class SudokuBoard {
             }
         }
         selectedCell = null;
+        for (Number number : numbers) {
+            number.setEnabled(quiz.getRemaining(number.getValue()) != 0);
+        }
     }
 
     /**
-     * Repaint the board.
+     * Repaint the changed cell, the peers whose conflict state may have changed
+     * with it, and the number buttons of the old and new values.
+     * 
+     * @param changed The changed cell, row * side + col.
      */
-    private void repaintBoard() {
-        for (int row = 0; row < cells.length; row++) {
-            for (int col = 0; col < cells[row].length; col++) {
-                Cell cell = cells[row][col];
-                int value = quiz.getValue(row, col);
-                if (!quiz.isFixed(row, col)) {
-                    cell.setValue(value, quiz.isPossible(row, col, value) ? validValueColor : invalidValueColor);
-                }
+    private void repaintCell(int changed) {
+        Cell cell = cells[index.rowOf[changed]][index.colOf[changed]];
+        int oldValue = cell.getValue();
+        int newValue = quiz.getValue(cell.getRow(), cell.getCol());
+        paintValue(cell);
+        for (int peer : index.peers[changed]) {
+            Cell other = cells[index.rowOf[peer]][index.colOf[peer]];
+            int value = other.getValue();
+            if (value != 0 && (value == oldValue || value == newValue)) {
+                paintValue(other);
+            }
+        }
+        for (int value : new int[] { oldValue, newValue }) {
+            if (value != 0) {
+                numbers[value - 1].setEnabled(quiz.getRemaining(value) != 0);
             }
         }
     }
 
+    /**
+     * Paint the value of the cell in the color of its conflict state.
+     * 
+     * @param cell The cell.
+     */
+    private void paintValue(Cell cell) {
+        int value = quiz.getValue(cell.getRow(), cell.getCol());
+        if (!quiz.isFixed(cell.getRow(), cell.getCol())) {
+            cell.setValue(value,
+                    quiz.isPossible(cell.getRow(), cell.getCol(), value) ? validValueColor : invalidValueColor);
+        }
+    }
+
+    /**
+     * Cancel the running solveQuiz().
+     */
+    private void cancelSolving() {
+        SudokuSolver solver = solving;
+        if (solver != null) {
+            solver.cancel();
+        }
+    }
+
     /**
      * New quiz.
      */
     public void newQuiz() {
         quiz.newQuiz();
-        setBoard();
     }
 
     /**
@@ -203,20 +254,18 @@ public class SudokuBoard {
      */
     public void resetQuiz() {
         quiz.resetQuiz();
-        setBoard();
     }
 
     /**
      * Provides a hint.
      */
     public void hint() {
-        SudokuSolver solver = new SudokuSolver(quiz);
-        SudokuSolver.Hint[] hints = solver.getHints();
-        if (hints.length == 0) {
+        SudokuSolver.Hint hint = session.getHint();
+        if (hint == null) {
             JOptionPane.showMessageDialog(frame, "No hints available.", "Hint", JOptionPane.PLAIN_MESSAGE);
         } else {
-            selectCell(hints[0].row, hints[0].col);
-            setValue(hints[0].value);
+            selectCell(hint.row, hint.col);
+            setValue(hint.value);
         }
     }
 
@@ -230,8 +279,9 @@ public class SudokuBoard {
                 @Override
                 public void run() {
                     SudokuSolver solver = new SudokuSolver(quiz);
+                    solving = solver;
 
-                    for (SudokuSolver.Hint hint : solver.getHints()) {
+                    for (SudokuSolver.Hint hint : solver) {
                         if (quiz.isFixed(hint.row, hint.col) || !quiz.isPossible(hint.row, hint.col, hint.value)) {
                             break; // Someone changed the quiz.
                         }
@@ -248,7 +298,7 @@ public class SudokuBoard {
                             e.printStackTrace();
                         }
                     }
-                    if (quiz.getRemaining() > 0) {
+                    if (quiz.getRemaining() > 0 && !solver.isCancelled()) {
                         SwingUtilities.invokeLater(new Runnable() {
                             @Override
                             public void run() {
@@ -257,6 +307,7 @@ public class SudokuBoard {
                             }
                         });
                     }
+                    solving = null;
                     semaphore.release();
                 }
             };
@@ -271,10 +322,6 @@ public class SudokuBoard {
         SudokuQuiz.Operation operation = quiz.undo();
         if (operation != null) {
             Cell cell = cells[operation.row][operation.col];
-            cell.setValue(operation.oldValue,
-                    quiz.isPossible(operation.row, operation.col, operation.oldValue)
-                            ? validValueColor
-                            : invalidValueColor);
             if (selectedCell != null) {
                 selectedCell.unselect();
             }
@@ -305,9 +352,8 @@ public class SudokuBoard {
      * @param value the value to set.
      */
     public void setValue(int value) {
-        if (selectedCell != null && 1 <= value && value <= 9) {
+        if (selectedCell != null && 1 <= value && value <= size * size) {
             boolean possible = quiz.setValue(selectedCell.getRow(), selectedCell.getCol(), value);
-            selectedCell.setValue(value, possible ? validValueColor : invalidValueColor);
             if (possible && quiz.getRemaining() == 0) {
                 JOptionPane.showMessageDialog(frame, "Congratuation, you solved the quiz!", "Sudoku",
                         JOptionPane.PLAIN_MESSAGE);
@@ -342,6 +388,10 @@ public class SudokuBoard {
             return col;
         }
 
+        public int getValue() {
+            return value;
+        }
+
         public void setValue(int value, Color color) {
             this.value = value;
             setForeground(color);
@@ -0,0 +1,441 @@
+package sudoku;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Canonical form of a quiz, the same for all quizzes which differ only by
+ * symmetry: relabelling the values, swapping bands or stacks, swapping rows
+ * within a band or columns within a stack, and transposing.
+ * The canonical form is the smallest of the equivalent grids in row order,
+ * with blank cells as 0 and the values relabelled 1, 2, ... in the order they
+ * first appear. Each column order is tried, and the rows are chosen one at a
+ * time, keeping only the rows which give the smallest row so far. Identical
+ * rows and columns, such as the blank lines of sparse quizzes, are tried in one
+ * order only.
+ * Trying every column order is affordable up to 9x9. Larger sizes are
+ * canonical under relabelling and transposing only, so equivalent quizzes
+ * which also differ by swapped lines get different forms, but different
+ * quizzes never get the same form.
+ * An instance keeps scratch arrays and is not thread-safe.
+ */
+public final class SudokuCanonical {
+    private static final long FNV_PRIME = 0x100000001b3L; // Multiplier of the FNV-1a hash.
+    private static final long FNV_BASIS = 0xcbf29ce484222325L; // Start of the FNV-1a hash.
+
+    private final int size; // Quiz size.
+    private final int side; // Number of cells in a row, column or box.
+    private final boolean swapping; // true to try the orders of the rows and columns.
+    private final int[][] columnOrders; // Original column of each column, for each column order tried.
+
+    private final byte[] source; // Quiz being canonicalized, transposed or not.
+    private final boolean[][] sameColumns; // true if two columns of the source are identical.
+    private final boolean[][] sameStacks; // true if two stacks of the source have the same columns in any order.
+    private int[] columns; // Column order being tried.
+    private final byte[] current; // Grid built so far, row by row.
+    private final byte[] best; // Smallest grid found so far.
+    private boolean found; // true if best holds a grid.
+    private final boolean[] used; // true if the row of the source is placed.
+    private final int[] rowAt; // Source row placed at each row.
+    private final int[][] maps; // Label of each value before each row, 0 if not labelled yet.
+    private final int[] labels; // Next label before each row.
+    private final byte[][] mins; // Smallest row found at each row.
+    private final int[][] ties; // Source rows giving the smallest row at each row.
+    private final byte[] row; // Scratch row.
+    private final int[] map; // Scratch labels.
+
+    /**
+     * Constructor.
+     * 
+     * @param size The quiz size.
+     */
+    public SudokuCanonical(int size) {
+        this.size = size;
+        this.side = size * size;
+        this.swapping = size <= 3;
+        this.columnOrders = swapping ? lineOrders(size) : new int[][] { identity(side) };
+        source = new byte[side * side];
+        sameColumns = new boolean[side][side];
+        sameStacks = new boolean[size][size];
+        current = new byte[side * side];
+        best = new byte[side * side];
+        used = new boolean[side];
+        rowAt = new int[side];
+        maps = new int[side + 1][side + 1];
+        labels = new int[side + 1];
+        labels[0] = 1;
+        mins = new byte[side][side];
+        ties = new int[side][side];
+        row = new byte[side];
+        map = new int[side + 1];
+    }
+
+    /**
+     * Get the canonical form of the quiz.
+     * 
+     * @param quiz The quiz.
+     * @return The canonical form.
+     */
+    public SudokuGrid canonicalize(SudokuGrid quiz) {
+        if (quiz.getSide() != side) {
+            throw new IllegalArgumentException("Quiz must have " + side + " rows.");
+        }
+        found = false;
+        for (int transpose = 0; transpose < 2; transpose++) {
+            for (int r = 0; r < side; r++) {
+                for (int c = 0; c < side; c++) {
+                    source[r * side + c] = (byte) (transpose == 0 ? quiz.get(r, c) : quiz.get(c, r));
+                }
+            }
+            boolean repeated = swapping && findRepeats();
+            for (int[] order : columnOrders) {
+                if (repeated && redundant(order)) {
+                    continue;
+                }
+                columns = order;
+                search(0);
+            }
+        }
+        return new SudokuGrid(side, best.clone());
+    }
+
+    /**
+     * Get the 64-bit fingerprint of the canonical form of the quiz. Equivalent
+     * quizzes have the same fingerprint, and the fingerprint is never 0.
+     * 
+     * @param quiz The quiz.
+     * @return The fingerprint.
+     */
+    public long fingerprint(SudokuGrid quiz) {
+        canonicalize(quiz);
+        long hash = FNV_BASIS ^ size;
+        for (byte value : best) {
+            hash = (hash ^ value) * FNV_PRIME;
+        }
+        hash ^= hash >>> 29;
+        return hash == 0 ? 1 : hash;
+    }
+
+    /**
+     * Place the rows from the row, keeping the grid if it is the smallest.
+     * 
+     * @param position The row to place.
+     */
+    private void search(int position) {
+        if (position == side) {
+            if (!found || compare(side * side) < 0) {
+                System.arraycopy(current, 0, best, 0, best.length);
+                found = true;
+            }
+            return;
+        }
+
+        // The first row of a band may come from any band, the others from the same band.
+        int first, last;
+        if (!swapping) {
+            first = last = position;
+        } else if (position % size == 0) {
+            first = 0;
+            last = side - 1;
+        } else {
+            first = rowAt[position - 1] / size * size;
+            last = first + size - 1;
+        }
+
+        // Keep the source rows which give the smallest row.
+        byte[] min = mins[position];
+        int[] tie = ties[position];
+        int count = 0;
+        for (int r = first; r <= last; r++) {
+            if (used[r]) {
+                continue;
+            }
+            System.arraycopy(maps[position], 0, map, 0, side + 1);
+            int next = labels[position];
+            int order = count == 0 ? -1 : 0;
+            for (int c = 0; c < side; c++) {
+                int value = source[r * side + columns[c]];
+                if (value != 0 && map[value] == 0) {
+                    map[value] = next++;
+                }
+                row[c] = (byte) map[value];
+                if (order == 0 && row[c] != min[c]) {
+                    order = row[c] < min[c] ? -1 : 1;
+                    if (order > 0) {
+                        break;
+                    }
+                }
+            }
+            if (order > 0) {
+                continue;
+            }
+            if (order < 0) {
+                System.arraycopy(row, 0, min, 0, side);
+                count = 0;
+            }
+            tie[count++] = r;
+        }
+
+        System.arraycopy(min, 0, current, position * side, side);
+        if (found && compare((position + 1) * side) > 0) {
+            return;
+        }
+        for (int i = 0; i < count; i++) {
+            int r = tie[i];
+            if (repeats(tie, i, position)) {
+                continue;
+            }
+            int[] child = maps[position + 1];
+            System.arraycopy(maps[position], 0, child, 0, side + 1);
+            int next = labels[position];
+            for (int c = 0; c < side; c++) {
+                int value = source[r * side + columns[c]];
+                if (value != 0 && child[value] == 0) {
+                    child[value] = next++;
+                }
+            }
+            labels[position + 1] = next;
+            used[r] = true;
+            rowAt[position] = r;
+            search(position + 1);
+            used[r] = false;
+        }
+    }
+
+    /**
+     * Check if a tie before the tie gives the same grids. Identical source rows
+     * give the same row and labels, and can be swapped when they are in the
+     * same band. At the first row of a band, rows of different bands can be
+     * swapped when the bands have the same rows in any order. Blank rows of
+     * sparse quizzes would otherwise be tried in every order.
+     * 
+     * @param tie      The source rows giving the smallest row.
+     * @param i        The tie to check.
+     * @param position The row being placed.
+     * @return true if an earlier tie gives the same grids.
+     */
+    private boolean repeats(int[] tie, int i, int position) {
+        int r = tie[i];
+        for (int j = 0; j < i; j++) {
+            int other = tie[j];
+            if (sameRow(r, other) && (r / size == other / size
+                    || position % size == 0 && sameBand(r / size, other / size))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Check if the column order gives the same grids as another order which is
+     * tried: identical columns of a stack must keep their order, and stacks with
+     * the same columns in any order must keep their order.
+     * 
+     * @param order The original column of each column.
+     * @return true if the same grids come from another order.
+     */
+    private boolean redundant(int[] order) {
+        for (int i = 0; i < side; i++) {
+            for (int j = i + 1; j < side; j++) {
+                if (i / size == j / size && order[i] > order[j] && sameColumns[order[i]][order[j]]) {
+                    return true;
+                }
+                if (i % size == 0 && j % size == 0 && order[i] / size > order[j] / size
+                        && sameStacks[order[i] / size][order[j] / size]) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Find the identical columns and the stacks with the same columns of the
+     * source.
+     * 
+     * @return true if any two columns are identical.
+     */
+    private boolean findRepeats() {
+        boolean repeated = false;
+        for (int c = 0; c < side; c++) {
+            for (int other = 0; other < side; other++) {
+                sameColumns[c][other] = c != other && sameColumn(c, other);
+                repeated |= sameColumns[c][other];
+            }
+        }
+        for (int stack = 0; stack < size; stack++) {
+            for (int other = 0; other < size; other++) {
+                sameStacks[stack][other] = repeated && stack != other && sameStack(stack, other);
+            }
+        }
+        return repeated;
+    }
+
+    /**
+     * Check if two stacks of the source have the same columns in any order.
+     * 
+     * @param stack The stack.
+     * @param other The other stack.
+     * @return true if the same.
+     */
+    private boolean sameStack(int stack, int other) {
+        boolean[] matched = new boolean[size];
+        for (int i = 0; i < size; i++) {
+            int j = 0;
+            while (j < size && (matched[j] || !sameColumns[stack * size + i][other * size + j])) {
+                j++;
+            }
+            if (j == size) {
+                return false;
+            }
+            matched[j] = true;
+        }
+        return true;
+    }
+
+    /**
+     * Check if two columns of the source are identical.
+     * 
+     * @param c     A column.
+     * @param other The other column.
+     * @return true if identical.
+     */
+    private boolean sameColumn(int c, int other) {
+        for (int r = 0; r < side; r++) {
+            if (source[r * side + c] != source[r * side + other]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Check if two bands of the source have the same rows in any order.
+     * 
+     * @param band  A band.
+     * @param other The other band.
+     * @return true if the same.
+     */
+    private boolean sameBand(int band, int other) {
+        boolean[] matched = new boolean[size];
+        for (int i = 0; i < size; i++) {
+            int j = 0;
+            while (j < size && (matched[j] || !sameRow(band * size + i, other * size + j))) {
+                j++;
+            }
+            if (j == size) {
+                return false;
+            }
+            matched[j] = true;
+        }
+        return true;
+    }
+
+    /**
+     * Check if two rows of the source are identical.
+     * 
+     * @param r     A row.
+     * @param other The other row.
+     * @return true if identical.
+     */
+    private boolean sameRow(int r, int other) {
+        for (int c = 0; c < side; c++) {
+            if (source[r * side + c] != source[other * side + c]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Compare the grid built so far with the smallest grid.
+     * 
+     * @param length The number of cells to compare.
+     * @return Negative if smaller, 0 if equal, positive if larger.
+     */
+    private int compare(int length) {
+        for (int cell = 0; cell < length; cell++) {
+            if (current[cell] != best[cell]) {
+                return current[cell] - best[cell];
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * List the orders of the lines, the stacks in any order and the columns in
+     * any order within each stack.
+     * 
+     * @param size The quiz size.
+     * @return The original line of each line, for each order.
+     */
+    private static int[][] lineOrders(int size) {
+        List<int[]> permutations = new ArrayList<>();
+        permute(identity(size), 0, permutations);
+        List<int[]> orders = new ArrayList<>();
+        for (int[] stacks : permutations) {
+            addOrders(size, stacks, 0, new int[size * size], permutations, orders);
+        }
+        return orders.toArray(new int[orders.size()][]);
+    }
+
+    /**
+     * Add the orders of the lines within the stacks from the stack.
+     * 
+     * @param size         The quiz size.
+     * @param stacks       The original stack of each stack.
+     * @param stack        The stack to order.
+     * @param order        The order built so far.
+     * @param permutations The permutations of size items.
+     * @param orders       The list of orders to add to.
+     */
+    private static void addOrders(int size, int[] stacks, int stack, int[] order, List<int[]> permutations,
+            List<int[]> orders) {
+        if (stack == size) {
+            orders.add(order.clone());
+            return;
+        }
+        for (int[] lines : permutations) {
+            for (int i = 0; i < size; i++) {
+                order[stack * size + i] = stacks[stack] * size + lines[i];
+            }
+            addOrders(size, stacks, stack + 1, order, permutations, orders);
+        }
+    }
+
+    /**
+     * Add the permutations of the items from the index.
+     * 
+     * @param items        The items, permuted in place and restored.
+     * @param index        The first item to permute.
+     * @param permutations The list of permutations to add to.
+     */
+    private static void permute(int[] items, int index, List<int[]> permutations) {
+        if (index == items.length) {
+            permutations.add(items.clone());
+            return;
+        }
+        for (int i = index; i < items.length; i++) {
+            int swap = items[index];
+            items[index] = items[i];
+            items[i] = swap;
+            permute(items, index + 1, permutations);
+            items[i] = items[index];
+            items[index] = swap;
+        }
+    }
+
+    /**
+     * Get the identity order.
+     * 
+     * @param length The number of items.
+     * @return 0, 1, ... length - 1.
+     */
+    private static int[] identity(int length) {
+        int[] order = new int[length];
+        for (int i = 0; i < length; i++) {
+            order[i] = i;
+        }
+        return order;
+    }
+}
@@ -0,0 +1,170 @@
+package sudoku;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Compact binary form of a quiz.
+ * A record is the quiz size in one byte, then a bitmap of the cells with a
+ * clue, bit (cell % 8) of byte (cell / 8), and then the clues in cell order,
+ * value - 1 in the fewest bits for the side (4 bits for 9x9 and 16x16), packed
+ * from the lowest bit. A 9x9 quiz with 25 clues takes 25 bytes.
+ */
+public final class SudokuCodec {
+    public static final int MAX_LENGTH = length(8, 64 * 64); // Length of the longest record, a full 64x64 quiz.
+
+    private SudokuCodec() {
+    }
+
+    /**
+     * Get the number of bits of a clue.
+     * 
+     * @param side The number of cells in a row, column or box.
+     * @return The number of bits.
+     */
+    private static int width(int side) {
+        return 32 - Integer.numberOfLeadingZeros(side - 1);
+    }
+
+    /**
+     * Get the length of a record.
+     * 
+     * @param size  The quiz size.
+     * @param clues The number of clues.
+     * @return The length in bytes.
+     */
+    public static int length(int size, int clues) {
+        int side = size * size;
+        return 1 + (side * side + 7) / 8 + (clues * width(side) + 7) / 8;
+    }
+
+    /**
+     * Encode the quiz.
+     * 
+     * @param quiz The quiz.
+     * @return The record.
+     */
+    public static byte[] encode(SudokuGrid quiz) {
+        int side = quiz.getSide();
+        int size = (int) Math.round(Math.sqrt(side));
+        return encode(size, quiz.toBytes());
+    }
+
+    /**
+     * Encode the quiz.
+     * 
+     * @param size  The quiz size.
+     * @param cells The value of each cell, 0 for blank cells.
+     * @return The record.
+     */
+    static byte[] encode(int size, byte[] cells) {
+        int width = width(size * size);
+        int clues = 0;
+        for (byte value : cells) {
+            if (value != 0) {
+                clues++;
+            }
+        }
+        byte[] record = new byte[length(size, clues)];
+        record[0] = (byte) size;
+        int digits = 1 + (cells.length + 7) / 8; // Next byte of the clues.
+        long buffer = 0; // Bits of the clues not written yet.
+        int bits = 0; // Number of bits in the buffer.
+        for (int cell = 0; cell < cells.length; cell++) {
+            if (cells[cell] == 0) {
+                continue;
+            }
+            record[1 + (cell >> 3)] |= 1 << (cell & 7);
+            buffer |= (long) (cells[cell] - 1) << bits;
+            bits += width;
+            while (bits >= 8) {
+                record[digits++] = (byte) buffer;
+                buffer >>>= 8;
+                bits -= 8;
+            }
+        }
+        if (bits > 0) {
+            record[digits] = (byte) buffer;
+        }
+        return record;
+    }
+
+    /**
+     * Decode the quiz.
+     * 
+     * @param record The record.
+     * @return The quiz.
+     * @throws IllegalArgumentException If the record is malformed or followed
+     *                                  by other bytes.
+     */
+    public static SudokuGrid decode(byte[] record) {
+        int size = record.length == 0 ? 0 : record[0];
+        if (size < 2 || size > 8) {
+            throw new IllegalArgumentException("Malformed record.");
+        }
+        int side = size * size;
+        byte[] cells = new byte[side * side];
+        if (decode(ByteBuffer.wrap(record), 0, cells) != record.length) {
+            throw new IllegalArgumentException("Malformed record.");
+        }
+        return new SudokuGrid(side, cells);
+    }
+
+    /**
+     * Decode the quiz in place from a buffer, for example a mapped file,
+     * without copying the record.
+     * 
+     * @param in     The buffer, read with absolute gets.
+     * @param offset The offset of the record.
+     * @param cells  The value of each cell, filled. The length must match the
+     *               size of the record.
+     * @return The length of the record, or -1 if the size does not match or the
+     *         record is malformed, has non-zero padding bits or ends before the
+     *         buffer limit.
+     */
+    static int decode(ByteBuffer in, int offset, byte[] cells) {
+        int size = offset < in.limit() ? in.get(offset) : 0;
+        if (size < 2 || size > 8 || cells.length != size * size * size * size) {
+            return -1;
+        }
+        int side = size * size;
+        int width = width(side);
+        int mask = (1 << width) - 1;
+        int digits = offset + 1 + (cells.length + 7) / 8; // Next byte of the clues.
+        if (digits > in.limit()) {
+            return -1;
+        }
+        long buffer = 0; // Bits of the clues not read yet.
+        int bits = 0; // Number of bits in the buffer.
+        int flags = 0; // Bitmap byte of the current 8 cells.
+        for (int cell = 0; cell < cells.length; cell++) {
+            if ((cell & 7) == 0) {
+                flags = in.get(offset + 1 + (cell >> 3));
+            }
+            if ((flags & (1 << (cell & 7))) == 0) {
+                cells[cell] = 0;
+                continue;
+            }
+            if (bits < width) {
+                if (digits == in.limit()) {
+                    return -1;
+                }
+                buffer |= (long) (in.get(digits++) & 0xff) << bits;
+                bits += 8;
+            }
+            int value = (int) (buffer & mask) + 1;
+            buffer >>>= width;
+            bits -= width;
+            if (value > side) {
+                return -1;
+            }
+            cells[cell] = (byte) value;
+        }
+
+        // Padding bits must be zero, so that each quiz has one record.
+        if ((cells.length & 7) != 0 && (in.get(offset + (cells.length + 7) / 8) & 0xff) >>> (cells.length & 7) != 0
+                || buffer != 0) {
+            return -1;
+        }
+        return digits - offset;
+    }
+}
@@ -0,0 +1,152 @@
+package sudoku;
+
+/**
+ * Concurrent set of quiz fingerprints, to skip quizzes which are equivalent to
+ * one seen before.
+ * The fingerprints are kept as longs in open addressing tables, one per
+ * stripe, and each stripe has its own lock, so threads adding different
+ * fingerprints rarely wait for each other. Two different quizzes may have the
+ * same 64-bit fingerprint, but the chance is about n * n / 2^65 for n quizzes.
+ */
+public class SudokuFingerprintSet {
+    private static final int STRIPES = 64; // Number of stripes, a power of 2.
+
+    private final Stripe[] stripes; // Tables of the fingerprints, by the low bits of the fingerprint.
+    private final ThreadLocal<SudokuCanonical[]> canonicals; // Canonicalizer of each size, for each thread.
+
+    /**
+     * Constructor.
+     */
+    public SudokuFingerprintSet() {
+        stripes = new Stripe[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+        canonicals = new ThreadLocal<SudokuCanonical[]>() {
+            @Override
+            protected SudokuCanonical[] initialValue() {
+                return new SudokuCanonical[9];
+            }
+        };
+    }
+
+    /**
+     * Get the fingerprint of the quiz, with the canonicalizer of the calling
+     * thread.
+     * 
+     * @param quiz The quiz.
+     * @return The fingerprint.
+     */
+    public long fingerprint(SudokuGrid quiz) {
+        int size = (int) Math.round(Math.sqrt(quiz.getSide()));
+        SudokuCanonical[] sizes = canonicals.get();
+        if (sizes[size] == null) {
+            sizes[size] = new SudokuCanonical(size);
+        }
+        return sizes[size].fingerprint(quiz);
+    }
+
+    /**
+     * Add the quiz.
+     * 
+     * @param quiz The quiz.
+     * @return true if no equivalent quiz was in the set.
+     */
+    public boolean add(SudokuGrid quiz) {
+        return add(fingerprint(quiz));
+    }
+
+    /**
+     * Add the fingerprint.
+     * 
+     * @param fingerprint The fingerprint, not 0.
+     * @return true if the fingerprint was not in the set.
+     */
+    public boolean add(long fingerprint) {
+        return stripes[(int) fingerprint & (STRIPES - 1)].add(fingerprint);
+    }
+
+    /**
+     * Check if an equivalent quiz is in the set.
+     * 
+     * @param quiz The quiz.
+     * @return true if in the set.
+     */
+    public boolean contains(SudokuGrid quiz) {
+        return contains(fingerprint(quiz));
+    }
+
+    /**
+     * Check if the fingerprint is in the set.
+     * 
+     * @param fingerprint The fingerprint, not 0.
+     * @return true if in the set.
+     */
+    public boolean contains(long fingerprint) {
+        return stripes[(int) fingerprint & (STRIPES - 1)].contains(fingerprint);
+    }
+
+    /**
+     * Get the number of fingerprints.
+     * 
+     * @return The number of fingerprints.
+     */
+    public long size() {
+        long size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    /**
+     * Open addressing table of the fingerprints of a stripe, 0 for empty
+     * slots.
+     */
+    private static class Stripe {
+        private long[] slots = new long[16]; // Fingerprints, a power of 2 slots.
+        private int size; // Number of fingerprints.
+
+        synchronized boolean add(long fingerprint) {
+            int slot = find(slots, fingerprint);
+            if (slots[slot] == fingerprint) {
+                return false;
+            }
+            slots[slot] = fingerprint;
+            if (++size * 2 > slots.length) {
+                long[] old = slots;
+                slots = new long[old.length * 2];
+                for (long value : old) {
+                    if (value != 0) {
+                        slots[find(slots, value)] = value;
+                    }
+                }
+            }
+            return true;
+        }
+
+        synchronized boolean contains(long fingerprint) {
+            return slots[find(slots, fingerprint)] == fingerprint;
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        /**
+         * Find the slot of the fingerprint, or the empty slot to put it in.
+         * 
+         * @param slots       The table.
+         * @param fingerprint The fingerprint.
+         * @return The slot.
+         */
+        private static int find(long[] slots, long fingerprint) {
+            int mask = slots.length - 1;
+            int slot = (int) (fingerprint >>> 6) & mask; // The low bits choose the stripe.
+            while (slots[slot] != 0 && slots[slot] != fingerprint) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package sudoku;
+
+import java.util.Collection;
+import java.util.SplittableRandom;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generate many quizzes in parallel.
+ * Each worker owns a SudokuQuiz, so the random numbers and solver buffers are
+ * not shared between threads. The quizzes are put on a bounded queue, which
+ * the consumer can drain while generation continues. If a worker fails, the
+ * queue fails too: take(), poll(), peek() and drainTo() throw an
+ * IllegalStateException with the cause of the failure instead of waiting for
+ * quizzes that never come.
+ */
+public class SudokuGenerator {
+    private final int size; // Quiz size.
+    private final int level; // Quiz level. (1 .. 7)
+    private final boolean unique; // true if the quizzes must have a unique solution.
+    private final ExecutorService workers; // Worker threads.
+    private final int threads; // Number of worker threads.
+    private final SplittableRandom seeds; // Source of the seeds of the workers.
+
+    /**
+     * Constructor using a worker per available processor.
+     * 
+     * @param size   The quiz size.
+     * @param level  The quiz level. (1 .. 7)
+     * @param unique true if the quizzes must have a unique solution.
+     */
+    public SudokuGenerator(int size, int level, boolean unique) {
+        this(size, level, unique, Runtime.getRuntime().availableProcessors(), new SplittableRandom().nextLong());
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param size    The quiz size.
+     * @param level   The quiz level. (1 .. 7)
+     * @param unique  true if the quizzes must have a unique solution.
+     * @param threads The number of worker threads.
+     * @param seed    The seed of the workers, each worker creates the same
+     *                quizzes for the same seed.
+     * @throws IllegalArgumentException If the size, level or threads are out of
+     *                                  range.
+     */
+    public SudokuGenerator(int size, int level, boolean unique, int threads, long seed) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Threads must be at least 1.");
+        }
+        new SudokuQuiz(size, level, seed); // Validate the size and level here, not in the workers.
+        this.size = size;
+        this.level = level;
+        this.unique = unique;
+        this.threads = threads;
+        this.seeds = new SplittableRandom(seed);
+        this.workers = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "sudoku-generator");
+                thread.setDaemon(true); // Do not keep the application alive.
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Start generating quizzes.
+     * The workers block while the queue is full, so take exactly count quizzes
+     * from the queue, or call shutdown() to stop early. take(), poll(), peek()
+     * and drainTo() throw an IllegalStateException once a worker has failed.
+     * 
+     * @param count    The number of quizzes to generate.
+     * @param capacity The capacity of the queue.
+     * @return The queue the quizzes are put on.
+     */
+    public BlockingQueue<int[][]> generate(int count, int capacity) {
+        QuizQueue quizzes = new QuizQueue(capacity);
+        for (int i = 0; i < threads; i++) {
+            // Split the count as evenly as possible.
+            int share = count / threads + (i < count % threads ? 1 : 0);
+            if (share > 0) {
+                workers.execute(new Worker(share, seeds.nextLong(), quizzes));
+            }
+        }
+        return quizzes;
+    }
+
+    /**
+     * Stop the workers.
+     * 
+     * @param timeout The time to wait for the workers in milliseconds.
+     * @return true if the workers have stopped.
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    public boolean shutdown(long timeout) throws InterruptedException {
+        workers.shutdownNow();
+        return workers.awaitTermination(timeout, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Queue of the quizzes, which passes the failure of a worker to the consumer.
+     * The failure is kept beside the queue, not put in it, and the waits of
+     * take() and poll() are cut into slices to check it.
+     */
+    private static class QuizQueue extends ArrayBlockingQueue<int[][]> {
+        private static final long serialVersionUID = 1L;
+        private static final long SLICE = TimeUnit.MILLISECONDS.toNanos(50); // Longest wait between checks.
+
+        private volatile Throwable failure; // First failure of a worker, or null.
+
+        QuizQueue(int capacity) {
+            super(capacity);
+        }
+
+        /**
+         * Record the failure of a worker.
+         * 
+         * @param cause The failure.
+         */
+        void fail(Throwable cause) {
+            if (failure == null) {
+                failure = cause;
+            }
+        }
+
+        @Override
+        public int[][] take() throws InterruptedException {
+            while (true) {
+                check();
+                int[][] quiz = super.poll(SLICE, TimeUnit.NANOSECONDS);
+                if (quiz != null) {
+                    return quiz;
+                }
+            }
+        }
+
+        @Override
+        public int[][] poll() {
+            check();
+            return super.poll();
+        }
+
+        @Override
+        public int[][] poll(long timeout, TimeUnit unit) throws InterruptedException {
+            long deadline = System.nanoTime() + unit.toNanos(timeout);
+            while (true) {
+                check();
+                long remaining = deadline - System.nanoTime();
+                int[][] quiz = super.poll(Math.max(0, Math.min(remaining, SLICE)), TimeUnit.NANOSECONDS);
+                if (quiz != null || remaining <= SLICE) {
+                    return quiz;
+                }
+            }
+        }
+
+        @Override
+        public int[][] peek() {
+            check();
+            return super.peek();
+        }
+
+        @Override
+        public int drainTo(Collection<? super int[][]> c) {
+            check();
+            return super.drainTo(c);
+        }
+
+        @Override
+        public int drainTo(Collection<? super int[][]> c, int maxElements) {
+            check();
+            return super.drainTo(c, maxElements);
+        }
+
+        /**
+         * Throw the failure of a worker, if any.
+         */
+        private void check() {
+            Throwable cause = failure;
+            if (cause != null) {
+                throw new IllegalStateException("Quiz generation failed.", cause);
+            }
+        }
+    }
+
+    /**
+     * Worker to generate a share of the quizzes.
+     */
+    private class Worker implements Runnable {
+        private final int count; // Number of quizzes to generate.
+        private final long seed; // Seed of the quizzes.
+        private final QuizQueue quizzes; // Queue the quizzes are put on.
+
+        Worker(int count, long seed, QuizQueue quizzes) {
+            this.count = count;
+            this.seed = seed;
+            this.quizzes = quizzes;
+        }
+
+        @Override
+        public void run() {
+            try {
+                SudokuQuiz quiz = new SudokuQuiz(size, level, seed);
+                for (int i = 0; i < count && !Thread.currentThread().isInterrupted(); i++) {
+                    quiz.newQuiz(unique);
+                    quizzes.put(quiz.getQuiz());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException | Error e) {
+                quizzes.fail(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package sudoku;
+
+/**
+ * Read-only snapshot of a quiz or board, one byte per cell in row * side + col
+ * order, 0 for blank cells.
+ * A snapshot shares the array of its SudokuQuiz without copying it. The quiz
+ * copies the array before changing it again, so the snapshot never changes.
+ */
+public final class SudokuGrid {
+    private final int side; // Number of cells in a row, column or box.
+    private final byte[] cells; // Value of each cell, not changed.
+
+    SudokuGrid(int side, byte[] cells) {
+        this.side = side;
+        this.cells = cells;
+    }
+
+    /**
+     * Get the number of cells in a row, column or box.
+     * 
+     * @return The number of cells.
+     */
+    public int getSide() {
+        return side;
+    }
+
+    /**
+     * Get the value of the cell.
+     * 
+     * @param row The row.
+     * @param col The column.
+     * @return The value, 0 for a blank cell.
+     */
+    public int get(int row, int col) {
+        return cells[row * side + col];
+    }
+
+    /**
+     * Get the value of the cell.
+     * 
+     * @param cell The cell index, row * side + col.
+     * @return The value, 0 for a blank cell.
+     */
+    public int get(int cell) {
+        return cells[cell];
+    }
+
+    /**
+     * Copy the values to a new array.
+     * 
+     * @return The values, [row][col].
+     */
+    public int[][] toArray() {
+        int[][] array = new int[side][side];
+        for (int row = 0; row < side; row++) {
+            for (int col = 0; col < side; col++) {
+                array[row][col] = cells[row * side + col];
+            }
+        }
+        return array;
+    }
+
+    /**
+     * Copy the values to a new flat array.
+     * 
+     * @return The values, [row * side + col].
+     */
+    byte[] toBytes() {
+        return cells.clone();
+    }
+}
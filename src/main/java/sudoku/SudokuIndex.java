@@ -0,0 +1,79 @@
+package sudoku;
+
+import java.util.Arrays;
+
+/**
+ * Index tables of a board size, shared by all quizzes and solvers of the size.
+ * Cells are numbered row * side + col, and units are the rows, then the
+ * columns, then the boxes. The tables are built once and must not be changed.
+ */
+final class SudokuIndex {
+    private static final SudokuIndex[] INDEXES = new SudokuIndex[9]; // Index of each size, built on first use.
+
+    final int size; // Quiz size.
+    final int side; // Number of cells in a row, column or box.
+    final int cells; // Number of cells.
+    final long all; // Mask of all values.
+    final int[] rowOf, colOf, boxOf; // Row, column and box of each cell.
+    final int[][] units; // Cells of the rows, columns and then boxes.
+    final int[][] peers; // Cells sharing a row, column or box with each cell.
+    final int[][] cellUnits; // Row, column and box unit of each cell.
+
+    /**
+     * Get the index tables of the size.
+     * 
+     * @param size The quiz size. (2 .. 8)
+     * @return The index tables.
+     */
+    static synchronized SudokuIndex of(int size) {
+        if (INDEXES[size] == null) {
+            INDEXES[size] = new SudokuIndex(size);
+        }
+        return INDEXES[size];
+    }
+
+    private SudokuIndex(int size) {
+        this.size = size;
+        this.side = size * size;
+        this.cells = side * side;
+        this.all = -1L >>> (64 - side);
+
+        rowOf = new int[cells];
+        colOf = new int[cells];
+        boxOf = new int[cells];
+        units = new int[side * 3][side];
+        cellUnits = new int[cells][];
+        for (int cell = 0; cell < cells; cell++) {
+            int row = cell / side, col = cell % side, box = row / size * size + col / size;
+            rowOf[cell] = row;
+            colOf[cell] = col;
+            boxOf[cell] = box;
+            units[row][col] = cell;
+            units[side + col][row] = cell;
+            units[side * 2 + box][row % size * size + col % size] = cell;
+            cellUnits[cell] = new int[] { row, side + col, side * 2 + box };
+        }
+
+        // Peers in the order of the row, the column and then the box.
+        peers = new int[cells][];
+        boolean[] seen = new boolean[cells];
+        for (int cell = 0; cell < cells; cell++) {
+            int[] list = new int[side * 3];
+            int count = 0;
+            seen[cell] = true;
+            for (int unit : cellUnits[cell]) {
+                for (int peer : units[unit]) {
+                    if (!seen[peer]) {
+                        seen[peer] = true;
+                        list[count++] = peer;
+                    }
+                }
+            }
+            seen[cell] = false;
+            for (int i = 0; i < count; i++) {
+                seen[list[i]] = false;
+            }
+            peers[cell] = Arrays.copyOf(list, count);
+        }
+    }
+}
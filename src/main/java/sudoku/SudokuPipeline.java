@@ -0,0 +1,241 @@
+package sudoku;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Ordered list of the strategies SudokuSolver uses to remove candidates, and
+ * the registry of all strategies.
+ * The Nacked Single is always checked first and is not part of a pipeline.
+ * The other strategies are tried in the order of the pipeline, and after any
+ * of them succeeds the solver starts again from the Nacked Single.
+ * An adaptive pipeline measures the time each strategy takes and how often it
+ * succeeds, and tries the strategies in the order of the least time per
+ * success. The measures are shared by all solvers of the pipeline, so one
+ * adaptive pipeline can learn over a batch of puzzles. The order is sorted
+ * again after every REFRESH runs, not on every hint. A strategy which rarely
+ * succeeds is moved to the end rather than skipped, so that it only runs when
+ * the cheaper ones fail, and the quizzes solved by logic stay the same as with
+ * the fixed order. The order of the hints and the usage of the strategies then
+ * depend on the measures, so ratings use a fixed order.
+ */
+final class SudokuPipeline {
+    private static final List<SudokuStrategy> REGISTRY = new ArrayList<>(
+            Arrays.asList(SudokuSolver.builtins())); // Registered strategies, by strategy number.
+
+    public static final SudokuPipeline ALL = new SudokuPipeline(SudokuSolver.HIDDEN_SINGLE, SudokuSolver.NAKIDS,
+            SudokuSolver.BOX_LINE, SudokuSolver.X_WING, SudokuSolver.SWORDFISH, SudokuSolver.XY_WING,
+            SudokuSolver.COLOURING); // All built-in strategies, from the cheapest.
+    public static final SudokuPipeline SINGLES = new SudokuPipeline(SudokuSolver.HIDDEN_SINGLE); // Singles only.
+
+    private final int[] strategies; // Strategies in the fixed order.
+    private final boolean adaptive; // true to order the strategies by the measures.
+    private static final int REFRESH = 256; // Runs recorded before sorting the adaptive order again.
+
+    private final AtomicLongArray tries, hits, nanos; // Measures of each strategy, or null if not adaptive.
+    private final AtomicLong records; // Runs recorded since the order was sorted, or null if not adaptive.
+    private volatile int[] order; // Strategies in the order to try them now, shared and not to be changed.
+
+    /**
+     * Register a strategy, to be used by the pipelines created after it.
+     * 
+     * @param strategy The strategy.
+     * @return The strategy number.
+     */
+    public static synchronized int register(SudokuStrategy strategy) {
+        if (find(strategy.getName()) >= 0) {
+            throw new IllegalArgumentException("Strategy already registered: " + strategy.getName());
+        }
+        REGISTRY.add(strategy);
+        return REGISTRY.size() - 1;
+    }
+
+    /**
+     * Find a registered strategy by name.
+     * 
+     * @param name The name of the strategy.
+     * @return The strategy number, or -1 if not registered.
+     */
+    public static synchronized int find(String name) {
+        for (int strategy = 0; strategy < REGISTRY.size(); strategy++) {
+            if (REGISTRY.get(strategy).getName().equals(name)) {
+                return strategy;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Get the registered strategies.
+     * 
+     * @return The strategies, by strategy number.
+     */
+    static synchronized SudokuStrategy[] getStrategies() {
+        return REGISTRY.toArray(new SudokuStrategy[REGISTRY.size()]);
+    }
+
+    /**
+     * Create a pipeline of the named strategies.
+     * 
+     * @param names The names of the strategies, in the order to try them.
+     * @return The pipeline.
+     */
+    public static SudokuPipeline of(String... names) {
+        int[] strategies = new int[names.length];
+        for (int i = 0; i < names.length; i++) {
+            strategies[i] = find(names[i]);
+            if (strategies[i] < 0) {
+                throw new IllegalArgumentException("Unknown strategy: " + names[i]);
+            }
+        }
+        return new SudokuPipeline(strategies);
+    }
+
+    /**
+     * Constructor of a pipeline in the fixed order.
+     * 
+     * @param strategies The strategy numbers, in the order to try them.
+     */
+    public SudokuPipeline(int... strategies) {
+        this(false, strategies);
+    }
+
+    private SudokuPipeline(boolean adaptive, int... strategies) {
+        int count = getStrategies().length;
+        for (int strategy : strategies) {
+            if (strategy <= SudokuSolver.NACKED_SINGLE || strategy >= count) {
+                throw new IllegalArgumentException("Invalid strategy: " + strategy);
+            }
+        }
+        this.strategies = strategies.clone();
+        this.adaptive = adaptive;
+        this.tries = adaptive ? new AtomicLongArray(count) : null;
+        this.hits = adaptive ? new AtomicLongArray(count) : null;
+        this.nanos = adaptive ? new AtomicLongArray(count) : null;
+        this.records = adaptive ? new AtomicLong() : null;
+        this.order = this.strategies;
+    }
+
+    /**
+     * Create an adaptive pipeline of the same strategies, with no measures yet.
+     * 
+     * @return The pipeline.
+     */
+    public SudokuPipeline adaptive() {
+        return new SudokuPipeline(true, strategies);
+    }
+
+    /**
+     * Check if the strategies are ordered by the measures.
+     * 
+     * @return true if adaptive.
+     */
+    public boolean isAdaptive() {
+        return adaptive;
+    }
+
+    /**
+     * Get the strategies in the order to try them now, sorted again when
+     * REFRESH runs were recorded since the last sort.
+     * 
+     * @return The strategy numbers, shared and not to be changed.
+     */
+    int[] order() {
+        if (adaptive && records.get() >= REFRESH) {
+            records.set(0);
+            order = sort();
+        }
+        return order;
+    }
+
+    /**
+     * Sort the strategies by the measures. Strategies which were never tried
+     * come first, then the least time per success, and the fixed order among
+     * equals.
+     * 
+     * @return The strategy numbers.
+     */
+    private int[] sort() {
+        int[] order = strategies.clone();
+        double[] costs = new double[order.length];
+        for (int i = 0; i < order.length; i++) {
+            int strategy = order[i];
+            costs[i] = tries.get(strategy) == 0 ? 0 : (double) nanos.get(strategy) / (hits.get(strategy) + 1);
+        }
+
+        // Insertion sort, which keeps the fixed order of equal costs.
+        for (int i = 1; i < order.length; i++) {
+            int strategy = order[i];
+            double cost = costs[i];
+            int j = i;
+            for (; j > 0 && costs[j - 1] > cost; j--) {
+                order[j] = order[j - 1];
+                costs[j] = costs[j - 1];
+            }
+            order[j] = strategy;
+            costs[j] = cost;
+        }
+        return order;
+    }
+
+    /**
+     * Record a run of the strategy in an adaptive pipeline.
+     * 
+     * @param strategy The strategy.
+     * @param elapsed  The time of the run in nanoseconds.
+     * @param hit      true if the strategy removed candidates.
+     */
+    void record(int strategy, long elapsed, boolean hit) {
+        records.incrementAndGet();
+        tries.incrementAndGet(strategy);
+        nanos.addAndGet(strategy, elapsed);
+        if (hit) {
+            hits.incrementAndGet(strategy);
+        }
+    }
+
+    /**
+     * Get the number of times the strategy was tried in an adaptive pipeline.
+     * 
+     * @param strategy The strategy.
+     * @return The number of times, 0 if not adaptive.
+     */
+    public long getTries(int strategy) {
+        return adaptive ? tries.get(strategy) : 0;
+    }
+
+    /**
+     * Get the number of times the strategy succeeded in an adaptive pipeline.
+     * 
+     * @param strategy The strategy.
+     * @return The number of times, 0 if not adaptive.
+     */
+    public long getHits(int strategy) {
+        return adaptive ? hits.get(strategy) : 0;
+    }
+
+    /**
+     * Get the time spent in the strategy in an adaptive pipeline.
+     * 
+     * @param strategy The strategy.
+     * @return The time in nanoseconds, 0 if not adaptive.
+     */
+    public long getNanos(int strategy) {
+        return adaptive ? nanos.get(strategy) : 0;
+    }
+
+    @Override
+    public String toString() {
+        SudokuStrategy[] registered = getStrategies();
+        StringBuilder text = new StringBuilder(adaptive ? "adaptive" : "fixed");
+        String separator = ": ";
+        for (int strategy : order()) {
+            text.append(separator).append(registered[strategy].getName());
+            separator = ", ";
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,920 @@
+package sudoku;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.SplittableRandom;
+
+public class SudokuQuiz {
+    public static final int SET = 0; // A value was set by setValue().
+    public static final int UNDO = 1; // A value was taken back by undo().
+    public static final int RESET = 2; // The board was reset to the quiz.
+    public static final int NEW = 3; // A new quiz was created or loaded.
+
+    private static final int MAX_ERASE_ATTEMPTS = 1 << 12; // Erasures to try for a unique quiz before carving.
+    private static final int MAX_SCORE_GRIDS = 1 << 9; // Grids to try for a quiz in a score band.
+    private static final int MAX_SCORE_PASSES = 16; // Passes of erasures over each grid for a score band.
+
+    private final int level; // Quiz level. (1 .. 7)
+    private final int size; // Quiz size, the number of rows and columns of a box.
+    private final int side; // Number of cells in a row, column or box.
+    private final SudokuIndex index; // Shared index tables of the size.
+    private byte[] quiz; // Sudoku quiz, value of cell row * side + col. Not changed once created.
+    private byte[] board; // Current sudoku board, value of cell row * side + col.
+    private boolean boardShared; // true if a snapshot or the quiz shares the board, which is copied before a change.
+    private final int[] counts; // counts[value - 1] = number of cells of the board with the value.
+    private final int[] occupancy; // occupancy[unit * side + value - 1] = number of cells of the unit with the value.
+    private int incomplete; // Number of values placed in fewer than side cells.
+    private int conflicts; // Number of units and values placed more than once in the unit.
+    private final List<Listener> listeners; // Listeners of board changes.
+    private Deque<Operation> operations; // List of operations.
+    private final SplittableRandom seeds; // Source of the seeds of new quizzes.
+    private SplittableRandom random; // Random numbers of the current quiz, not shared with other quizzes.
+    private long seed; // Seed of the current quiz.
+    private long generateTime; // Time taken to create the current quiz in nanoseconds.
+    private final SudokuSearch generator; // Randomized solver to create quizzes.
+    private final SudokuSearch validator; // Deterministic solver to check quizzes.
+    private SudokuCanonical canonical; // Canonical form of quizzes for getFingerprint(), created on first use.
+
+    public SudokuQuiz(int size, int level) {
+        this(size, level, new SplittableRandom().nextLong());
+    }
+
+    /**
+     * Constructor with the seed of the quizzes.
+     * The same size, level and seed create the same sequence of quizzes.
+     * 
+     * @param size  The quiz size.
+     * @param level The quiz level. (1 .. 7)
+     * @param seed  The seed of the quizzes.
+     */
+    public SudokuQuiz(int size, int level, long seed) {
+        if (level < 1 || level > 7) {
+            throw new IllegalArgumentException("Level must be between 1 and 7.");
+        }
+        if (size < 2 || size > 8) {
+            throw new IllegalArgumentException("Size must be between 2 and 8.");
+        }
+        if (level >= size * size) {
+            throw new IllegalArgumentException("Level must be less than the number of cells in a box.");
+        }
+        this.size = size;
+        this.side = size * size;
+        this.level = level;
+        index = SudokuIndex.of(size);
+        quiz = new byte[side * side];
+        board = quiz;
+        boardShared = true;
+        operations = new ArrayDeque<>();
+        seeds = new SplittableRandom(seed);
+        generator = new SudokuSearch(size);
+        validator = new SudokuSearch(size);
+        counts = new int[side];
+        occupancy = new int[side * 3 * side];
+        listeners = new ArrayList<>();
+        countBoard();
+    }
+
+    /**
+     * A utility function to print the board
+     */
+    public void dumpBoard() {
+        dumpBoard(getBoard());
+    }
+
+    public void dumpBoard(int[][] board) {
+        int width = String.valueOf(side).length(); // Width of a value.
+        String border;
+        border = " ".repeat(width);
+        for (int i = 0; i < side; i++) {
+            border += "-".repeat(width + 1);
+        }
+        System.out.println(border);
+        border = " ".repeat(width);
+        for (int i = 0; i < side; i++) {
+            border += " " + pad(width == 1 ? String.valueOf(i % 10) : String.valueOf(i), width);
+        }
+        System.out.println(border);
+
+        for (int row = 0; row < board.length; row++) {
+            System.out.print(pad(String.valueOf(row), width) + " ");
+            for (int col = 0; col < board[row].length; col++) {
+                int value = board[row][col];
+                System.out.print(pad(value == 0 ? "." : String.valueOf(value), width) + " ");
+            }
+            System.out.println();
+        }
+    }
+
+    /**
+     * Pad the text with spaces on the left.
+     * 
+     * @param text  The text.
+     * @param width The width.
+     * @return The padded text.
+     */
+    private static String pad(String text, int width) {
+        return " ".repeat(width - text.length()) + text;
+    }
+
+    /**
+     * Get the quiz size.
+     * 
+     * @return The quiz size.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Get the number of cells in a row, column or box.
+     * 
+     * @return The number of cells, size * size.
+     */
+    public int getSide() {
+        return side;
+    }
+
+    /**
+     * Get the seed of the current quiz, to create the same quiz again with
+     * newQuiz(seed, unique).
+     * 
+     * @return The seed.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Get a copy of the current quiz.
+     * 
+     * @return quiz The quiz.
+     */
+    public int[][] getQuiz() {
+        return getQuizSnapshot().toArray();
+    }
+
+    /**
+     * Get a copy of the current board.
+     * 
+     * @return board The board.
+     */
+    public int[][] getBoard() {
+        return new SudokuGrid(side, board).toArray();
+    }
+
+    /**
+     * Get a snapshot of the current quiz, without copying it.
+     * 
+     * @return The snapshot.
+     */
+    public SudokuGrid getQuizSnapshot() {
+        return new SudokuGrid(side, quiz);
+    }
+
+    /**
+     * Get a snapshot of the current board. The board is shared until the next
+     * change, which copies it once.
+     * 
+     * @return The snapshot.
+     */
+    public SudokuGrid getBoardSnapshot() {
+        boardShared = true;
+        return new SudokuGrid(side, board);
+    }
+
+    /**
+     * Copy the current board for a solver to fill.
+     * 
+     * @return The board, value of cell row * side + col.
+     */
+    byte[] copyBoard() {
+        return board.clone();
+    }
+
+    /**
+     * Set the value of the cell, copying the board first if it is shared.
+     * 
+     * @param cell  The cell index.
+     * @param value The value.
+     */
+    private void writeBoard(int cell, int value) {
+        if (boardShared) {
+            board = board.clone();
+            boardShared = false;
+        }
+        count(cell, board[cell], -1);
+        board[cell] = (byte) value;
+        count(cell, value, 1);
+    }
+
+    /**
+     * Count the values of the board from scratch.
+     */
+    private void countBoard() {
+        Arrays.fill(counts, 0);
+        Arrays.fill(occupancy, 0);
+        incomplete = side;
+        conflicts = 0;
+        for (int cell = 0; cell < board.length; cell++) {
+            count(cell, board[cell], 1);
+        }
+    }
+
+    /**
+     * Update the counters for a value put in or taken out of the cell.
+     * 
+     * @param cell  The cell index.
+     * @param value The value, nothing is counted for 0.
+     * @param delta 1: put in, -1: taken out.
+     */
+    private void count(int cell, int value, int delta) {
+        if (value == 0) {
+            return;
+        }
+        int before = counts[value - 1];
+        int after = before + delta;
+        counts[value - 1] = after;
+        if (before < side != after < side) {
+            incomplete += after < side ? 1 : -1;
+        }
+        for (int unit : index.cellUnits[cell]) {
+            int i = unit * side + value - 1;
+            before = occupancy[i];
+            after = before + delta;
+            occupancy[i] = after;
+            if (before < 2 != after < 2) {
+                conflicts += after < 2 ? -1 : 1;
+            }
+        }
+    }
+
+    /**
+     * Set value on the board.
+     * 
+     * @param row   The row.
+     * @param col   The column.
+     * @param value The value of the cell.
+     * @return True if the value is valid.
+     */
+    public boolean setValue(int row, int col, int value) {
+        if (!isFixed(row, col) && value >= 1 && value <= side) {
+            operations.add(new Operation(row, col, board[row * side + col], value));
+            writeBoard(row * side + col, value);
+            fireChanged(SET, oneCell(row * side + col));
+            return isPossible(row, col, value);
+        }
+        return false;
+    }
+
+    /**
+     * Get value of board.
+     * 
+     * @param row The row.
+     * @param col The column.
+     * @return The value of the cell.
+     */
+    public int getValue(int row, int col) {
+        return board[row * side + col];
+    }
+
+    /**
+     * Undo the last operation.
+     * 
+     * @return The last operation.
+     */
+    public Operation undo() {
+        if (operations.isEmpty()) {
+            return null;
+        }
+        Operation operation = operations.removeLast();
+        writeBoard(operation.row * side + operation.col, operation.oldValue);
+        fireChanged(UNDO, oneCell(operation.row * side + operation.col));
+        return operation;
+    }
+
+    /**
+     * Check if board[row, col] is fixed.
+     * 
+     * @param row The row.
+     * @param col The column.
+     * @return true: fixed, false: editable.
+     */
+    public boolean isFixed(int row, int col) {
+        if (0 <= row && row < side && 0 <= col && col < side) {
+            return quiz[row * side + col] != 0;
+        }
+        return true;
+    }
+
+    /**
+     * Check if value is possible to put in the board[row, col].
+     * 
+     * @param row   The row.
+     * @param col   The column.
+     * @param value The value.
+     * @return true: possible, false: not possible.
+     */
+    public boolean isPossible(int row, int col, int value) {
+        if (!isFixed(row, col) && value >= 1 && value <= side) {
+            int cell = row * side + col;
+            int self = board[cell] == value ? 1 : 0; // The cell itself does not conflict.
+            for (int unit : index.cellUnits[cell]) {
+                if (occupancy[unit * side + value - 1] != self) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Remaining blank cells.
+     * 
+     * @return the number of blank cells.
+     */
+    public int getRemaining() {
+        return incomplete;
+    }
+
+    /**
+     * Remaining blank number.
+     * 
+     * @return remaining blank number per number.
+     */
+    public int[] getRemainings() {
+        int[] remainings = new int[side];
+        for (int value = 1; value <= side; value++) {
+            remainings[value - 1] = side - counts[value - 1];
+        }
+        return remainings;
+    }
+
+    /**
+     * Remaining blank number of the value, without scanning the board.
+     * 
+     * @param value The value.
+     * @return The number of cells still to be filled with the value.
+     */
+    public int getRemaining(int value) {
+        return side - counts[value - 1];
+    }
+
+    /**
+     * Get the number of conflicts on the board.
+     * 
+     * @return The number of units and values placed more than once in the unit.
+     */
+    public int getConflicts() {
+        return conflicts;
+    }
+
+    /**
+     * Check if the board is filled without conflicts.
+     * 
+     * @return true: solved.
+     */
+    public boolean isSolved() {
+        return incomplete == 0 && conflicts == 0;
+    }
+
+    /**
+     * Check if the current quiz has exactly one solution.
+     * 
+     * @return true: unique solution, false: no solution or several solutions.
+     */
+    public boolean isUnique() {
+        return validator.isUnique(quiz);
+    }
+
+    /**
+     * Load the quiz, for example from a file, instead of creating a new one.
+     * 
+     * @param quiz The quiz, 0 for blank cells.
+     */
+    public void loadQuiz(int[][] quiz) {
+        if (quiz.length != side) {
+            throw new IllegalArgumentException("Quiz must have " + side + " rows.");
+        }
+        for (int[] row : quiz) {
+            if (row.length != side) {
+                throw new IllegalArgumentException("Quiz must have " + side + " columns.");
+            }
+            for (int value : row) {
+                if (value < 0 || value > side) {
+                    throw new IllegalArgumentException("Value must be between 0 and " + side + ".");
+                }
+            }
+        }
+        byte[] cells = new byte[side * side];
+        for (int row = 0; row < side; row++) {
+            for (int col = 0; col < side; col++) {
+                cells[row * side + col] = (byte) quiz[row][col];
+            }
+        }
+        this.quiz = cells;
+        restart();
+        fireChanged(NEW, allCells());
+    }
+
+    /**
+     * Load the quiz from the store, decoding it from the mapped file.
+     * 
+     * @param store  The store.
+     * @param number The number of the quiz in the store, from 0.
+     * @throws IOException If the store cannot be read.
+     */
+    public void loadQuiz(SudokuStore store, long number) throws IOException {
+        byte[] cells = new byte[side * side];
+        store.read(number, cells);
+        this.quiz = cells;
+        restart();
+        fireChanged(NEW, allCells());
+    }
+
+    /**
+     * Reset the board to the quiz.
+     * The board shares the quiz until the first change.
+     */
+    public void resetQuiz() {
+        int[] changed = null;
+        if (!listeners.isEmpty()) {
+            int count = 0;
+            int[] list = new int[board.length];
+            for (int cell = 0; cell < board.length; cell++) {
+                if (board[cell] != quiz[cell]) {
+                    list[count++] = cell;
+                }
+            }
+            changed = Arrays.copyOf(list, count);
+        }
+        restart();
+        fireChanged(RESET, changed);
+    }
+
+    /**
+     * Add the listener of board changes.
+     * 
+     * @param listener The listener.
+     */
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Remove the listener of board changes.
+     * 
+     * @param listener The listener.
+     */
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Start the board from the quiz.
+     */
+    private void restart() {
+        board = quiz;
+        boardShared = true;
+        operations.clear();
+        countBoard();
+    }
+
+    /**
+     * Tell the listeners that the board has changed.
+     * 
+     * @param type  SET, UNDO, RESET or NEW.
+     * @param cells The changed cells.
+     */
+    private void fireChanged(int type, int[] cells) {
+        for (Listener listener : listeners) {
+            listener.boardChanged(type, cells);
+        }
+    }
+
+    /**
+     * List the cell, for the listeners of an edit.
+     * 
+     * @param cell The changed cell.
+     * @return The cell, or null without listeners.
+     */
+    private int[] oneCell(int cell) {
+        return listeners.isEmpty() ? null : new int[] { cell };
+    }
+
+    /**
+     * List all cells, for the listeners of a new quiz.
+     * 
+     * @return The cells, or null without listeners.
+     */
+    private int[] allCells() {
+        if (listeners.isEmpty()) {
+            return null;
+        }
+        int[] cells = new int[board.length];
+        for (int cell = 0; cell < cells.length; cell++) {
+            cells[cell] = cell;
+        }
+        return cells;
+    }
+
+    /**
+     * Create the new quiz.
+     */
+    public void newQuiz() {
+        newQuiz(false);
+    }
+
+    /**
+     * Create the new quiz.
+     * 
+     * @param unique true: retry until the quiz has a unique solution, which may
+     *               take many retries on high levels. false: any solvable quiz.
+     */
+    public void newQuiz(boolean unique) {
+        newQuiz(seeds.nextLong(), unique);
+    }
+
+    /**
+     * Create the new quiz from the seed.
+     * The same size, level and seed always create the same quiz.
+     * A unique quiz is retried up to MAX_ERASE_ATTEMPTS times, and then carved
+     * from the grid one cell per box at a time, skipping the cells which would
+     * break the unique solution. On high levels, where few quizzes are unique,
+     * such as 7 for 9x9, the carved quiz may keep more clues than the level.
+     * 
+     * @param seed   The seed of the quiz.
+     * @param unique true: retry until the quiz has a unique solution. false: any
+     *               solvable quiz.
+     */
+    public void newQuiz(long seed, boolean unique) {
+        long start = System.nanoTime();
+        byte[] solution = startQuiz(seed);
+        for (int attempt = 1;; attempt++) {
+            if (unique && attempt > MAX_ERASE_ATTEMPTS) {
+                quiz = solution.clone();
+                carveQuiz();
+                break;
+            }
+            // Erase cells block by block.
+            for (int l = level; l > 0; l--) {
+                for (int b = 0; b < side; b++) {
+                    int[] box = index.units[side * 2 + b];
+                    while (true) {
+                        int cell = box[random.nextInt(size) * size + random.nextInt(size)];
+                        if (quiz[cell] != 0) {
+                            quiz[cell] = 0;
+                            break;
+                        }
+                    }
+                }
+            }
+
+            // Make sure the quiz is solvable (and unique if required), and if not, erase the same grid again.
+            int solutions = validator.countSolutions(quiz, unique ? 2 : 1);
+            if (solutions == 1) {
+                break;
+            }
+            quiz = solution.clone();
+        }
+        finishQuiz(start);
+    }
+
+    /**
+     * Erase up to level cells of each box, one cell per box at a time, keeping
+     * the unique solution.
+     */
+    private void carveQuiz() {
+        int[] order = new int[side];
+        for (int l = level; l > 0; l--) {
+            for (int b = 0; b < side; b++) {
+                int[] box = index.units[side * 2 + b];
+                for (int i = 0; i < side; i++) {
+                    int j = random.nextInt(i + 1);
+                    order[i] = order[j];
+                    order[j] = i;
+                }
+                for (int i : order) {
+                    if (quiz[box[i]] != 0 && erase(box[i])) {
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Create the new quiz with a unique solution and a SudokuRating score
+     * between minScore and maxScore, regardless of the level.
+     * 
+     * @param minScore The minimum score.
+     * @param maxScore The maximum score.
+     */
+    public void newQuiz(int minScore, int maxScore) {
+        newQuiz(seeds.nextLong(), minScore, maxScore);
+    }
+
+    /**
+     * Create the new quiz from the seed with a unique solution and a score
+     * between minScore and maxScore.
+     * Cells of a solved grid are erased one at a time in random order, and a
+     * cell is put back if the quiz loses its unique solution, so the score
+     * climbs into the band instead of rejecting whole quizzes. An erasure
+     * which takes the score over maxScore is kept if putting back another
+     * erased cell brings the score into the band, or below it, and undone
+     * otherwise. If every cell was tried below minScore, some erased cells are
+     * put back and the erasures start again in another order, for up to
+     * MAX_SCORE_PASSES passes, before the next grid is tried, up to
+     * MAX_SCORE_GRIDS grids. The narrow band 200 .. 300 for 9x9 takes about
+     * 0.8 s on average.
+     * 
+     * @param seed     The seed of the quiz.
+     * @param minScore The minimum score, at most SudokuRating.getMaxScore(size).
+     * @param maxScore The maximum score.
+     * @throws IllegalStateException If no grid gives a quiz in the band.
+     */
+    public void newQuiz(long seed, int minScore, int maxScore) {
+        if (minScore > maxScore) {
+            throw new IllegalArgumentException("minScore must not be greater than maxScore.");
+        }
+        if (minScore > SudokuRating.getMaxScore(size)) {
+            throw new IllegalArgumentException("minScore must not be greater than " + SudokuRating.getMaxScore(size)
+                    + ".");
+        }
+        long start = System.nanoTime();
+        byte[] oldQuiz = quiz, oldBoard = board; // Current quiz, kept if no grid gives a quiz in the band.
+        long oldSeed = this.seed;
+        SplittableRandom oldRandom = random;
+        startQuiz(seed);
+        int[] cells = new int[side * side];
+        for (int grid = 1;; grid++) {
+            int score = 0;
+            for (int pass = 0; pass < MAX_SCORE_PASSES && score < minScore; pass++) {
+                shuffle(cells);
+                if (pass > 0) {
+                    // Put back some erased cells, and erase again in another order.
+                    for (int i = 0, restored = 0; i < cells.length && restored < side; i++) {
+                        if (quiz[cells[i]] == 0) {
+                            quiz[cells[i]] = board[cells[i]];
+                            restored++;
+                        }
+                    }
+                    score = rate();
+                    if (score > maxScore) {
+                        score = 0; // Leave the grid.
+                        break;
+                    }
+                    shuffle(cells);
+                }
+                for (int i = 0; i < cells.length && score < minScore; i++) {
+                    int cell = cells[i];
+                    if (quiz[cell] == 0 || !erase(cell)) {
+                        continue;
+                    }
+                    int rated = rate();
+                    if (rated > maxScore) {
+                        rated = backOff(cell, minScore, maxScore);
+                    }
+                    if (rated > maxScore) {
+                        quiz[cell] = board[cell];
+                        continue;
+                    }
+                    score = rated;
+                }
+            }
+            if (score >= minScore) {
+                break;
+            }
+            if (grid == MAX_SCORE_GRIDS) {
+                quiz = oldQuiz;
+                board = oldBoard;
+                this.seed = oldSeed;
+                random = oldRandom;
+                generator.setRandom(oldRandom);
+                throw new IllegalStateException("No quiz with a score between " + minScore + " and " + maxScore
+                        + " in " + MAX_SCORE_GRIDS + " grids.");
+            }
+            startQuiz(random.nextLong());
+        }
+        this.seed = seed;
+        finishQuiz(start);
+    }
+
+    /**
+     * Put back one erased cell, keeping the erasure which took the score over
+     * maxScore, so that the score can land in the band instead of skipping
+     * over it. The cell whose score is in the band is put back, or else the
+     * cell with the highest score up to maxScore.
+     * 
+     * @param erased   The cell of the erasure.
+     * @param minScore The minimum score.
+     * @param maxScore The maximum score.
+     * @return The score with the cell put back, or over maxScore with the quiz
+     *         as before if no cell brings the score down to maxScore.
+     */
+    private int backOff(int erased, int minScore, int maxScore) {
+        int best = -1, bestScore = Integer.MAX_VALUE;
+        for (int cell = 0; cell < quiz.length && (best < 0 || bestScore < minScore); cell++) {
+            if (quiz[cell] != 0 || cell == erased) {
+                continue;
+            }
+            quiz[cell] = board[cell]; // A clue more keeps the unique solution.
+            int rated = rate();
+            quiz[cell] = 0;
+            if (rated <= maxScore && (best < 0 || rated > bestScore)) {
+                best = cell;
+                bestScore = rated;
+            }
+        }
+        if (best >= 0) {
+            quiz[best] = board[best];
+        }
+        return bestScore;
+    }
+
+    /**
+     * Rate the quiz being created.
+     * 
+     * @return The SudokuRating score.
+     */
+    private int rate() {
+        return new SudokuRating(size, new SudokuGrid(side, quiz)).getScore();
+    }
+
+    /**
+     * Create the new quiz with close to the minimum number of clues.
+     */
+    public void newMinimalQuiz() {
+        newMinimalQuiz(seeds.nextLong());
+    }
+
+    /**
+     * Create the new quiz from the seed with close to the minimum number of
+     * clues, regardless of the level.
+     * Cells of a solved grid are erased one at a time in random order, and a
+     * cell is put back only if erasing it would break the unique solution. The
+     * result is minimal: no clue can be erased without a second solution.
+     * 
+     * @param seed The seed of the quiz.
+     */
+    public void newMinimalQuiz(long seed) {
+        long start = System.nanoTime();
+        startQuiz(seed);
+        int[] cells = new int[side * side];
+        shuffle(cells);
+        for (int cell : cells) {
+            erase(cell);
+        }
+        finishQuiz(start);
+    }
+
+    /**
+     * Get the number of clues of the current quiz.
+     * 
+     * @return The number of clues.
+     */
+    public int getClues() {
+        int clues = 0;
+        for (byte value : quiz) {
+            if (value != 0) {
+                clues++;
+            }
+        }
+        return clues;
+    }
+
+    /**
+     * Create the new quiz as a random variant of the quiz of the transformer,
+     * which needs no check and takes no search.
+     * 
+     * @param transformer The transformer, of the same size.
+     */
+    public void newQuiz(SudokuTransformer transformer) {
+        if (transformer.getSide() != side) {
+            throw new IllegalArgumentException("Transformer must have " + side + " rows.");
+        }
+        long start = System.nanoTime();
+        seed = seeds.nextLong();
+        random = new SplittableRandom(seed);
+        quiz = new byte[side * side];
+        transformer.next(random, quiz, null);
+        finishQuiz(start);
+    }
+
+    /**
+     * Get the fingerprint of the current quiz, the same for the quizzes which
+     * differ only by symmetry, to skip equivalent quizzes with a
+     * SudokuFingerprintSet.
+     * 
+     * @return The fingerprint.
+     */
+    public long getFingerprint() {
+        if (canonical == null) {
+            canonical = new SudokuCanonical(size);
+        }
+        return canonical.fingerprint(getQuizSnapshot());
+    }
+
+    /**
+     * Get the time taken to create the current quiz.
+     * 
+     * @return The time in nanoseconds.
+     */
+    public long getGenerateTime() {
+        return generateTime;
+    }
+
+    /**
+     * Start a new quiz from the seed with a solved grid. The solved grid is
+     * kept in the board until finishQuiz(), so that erased cells can be put
+     * back.
+     * 
+     * @param seed The seed of the quiz.
+     * @return The solved grid.
+     */
+    private byte[] startQuiz(long seed) {
+        this.seed = seed;
+        random = new SplittableRandom(seed);
+        generator.setRandom(random);
+        quiz = new byte[side * side];
+        while (!generator.solve(quiz)) {
+            quiz = new byte[side * side];
+        }
+        board = quiz.clone();
+        return board;
+    }
+
+    /**
+     * Finish the new quiz.
+     * 
+     * @param start The start time from System.nanoTime().
+     */
+    private void finishQuiz(long start) {
+        restart();
+        generateTime = System.nanoTime() - start;
+        fireChanged(NEW, allCells());
+    }
+
+    /**
+     * Erase the cell of the quiz if the quiz keeps its unique solution, which is
+     * still in the board.
+     * 
+     * @param cell The cell index.
+     * @return true: erased, false: put back.
+     */
+    private boolean erase(int cell) {
+        byte value = board[cell];
+        quiz[cell] = 0;
+        if (validator.hasOtherSolution(quiz, cell, value)) {
+            quiz[cell] = value;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Fill the array with the cell indexes in random order.
+     * 
+     * @param cells The array of side * side cells.
+     */
+    private void shuffle(int[] cells) {
+        for (int i = 0; i < cells.length; i++) {
+            int j = random.nextInt(i + 1);
+            cells[i] = cells[j];
+            cells[j] = i;
+        }
+    }
+
+    /**
+     * Listener of board changes.
+     */
+    public interface Listener {
+        /**
+         * Called after cells of the board have changed.
+         * 
+         * @param type  SET, UNDO, RESET or NEW.
+         * @param cells The changed cells, row * side + col.
+         */
+        void boardChanged(int type, int[] cells);
+    }
+
+    /**
+     * Class for operation history.
+     */
+    public class Operation {
+        public final int row, col; // row and column of cell.
+        public final int oldValue; // old value of cell.
+        public final int newValue; // new value of cell.
+
+        Operation(int row, int col, int oldValue, int newValue) {
+            this.row = row;
+            this.col = col;
+            this.oldValue = oldValue;
+            this.newValue = newValue;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package sudoku;
+
+/**
+ * Difficulty rating of a quiz, by the strategies SudokuSolver needs to solve
+ * it.
+ * Each strategy has a weight, and the score is the sum of the weight times the
+ * number of times the strategy fired. Cells which SudokuSolver cannot fill are
+ * left to guessing and weigh the most.
+ */
+public class SudokuRating {
+    private static final int[] WEIGHTS = { 1, 2, 4, 6, 8, 10, 10, 12 }; // Weight of each strategy of SudokuSolver.
+    private static final int GUESS = 20; // Weight of a cell left to guessing.
+
+    private final int[] usage; // Number of times each strategy fired.
+    private final int remaining; // Number of cells not filled by SudokuSolver.
+    private final int score; // Difficulty score.
+
+    /**
+     * Rate the current quiz.
+     * 
+     * @param quiz The quiz.
+     */
+    public SudokuRating(SudokuQuiz quiz) {
+        this(quiz.getSize(), quiz.getQuizSnapshot());
+    }
+
+    /**
+     * Rate the quiz.
+     * 
+     * @param size The quiz size.
+     * @param quiz The quiz, not changed.
+     */
+    public SudokuRating(int size, int[][] quiz) {
+        this(size, new SudokuGrid(size * size, flatten(quiz)));
+    }
+
+    /**
+     * Rate the quiz.
+     * 
+     * @param size The quiz size.
+     * @param quiz The quiz.
+     */
+    SudokuRating(int size, SudokuGrid quiz) {
+        byte[] board = quiz.toBytes();
+        int blanks = 0;
+        for (byte value : board) {
+            if (value == 0) {
+                blanks++;
+            }
+        }
+
+        SudokuSolver solver = new SudokuSolver(size, quiz, board);
+        int filled = 0;
+        for (SudokuSolver.Hint hint : solver) {
+            filled++;
+        }
+        remaining = blanks - filled;
+        usage = new int[SudokuSolver.STRATEGIES];
+        int score = remaining * GUESS;
+        for (int strategy = 0; strategy < usage.length; strategy++) {
+            usage[strategy] = solver.getUsage(strategy);
+            score += usage[strategy] * WEIGHTS[strategy];
+        }
+        this.score = score;
+    }
+
+    /**
+     * Copy the quiz to a flat array.
+     * 
+     * @param quiz The quiz, [row][col].
+     * @return The quiz, [row * side + col].
+     */
+    private static byte[] flatten(int[][] quiz) {
+        int side = quiz.length;
+        byte[] cells = new byte[side * side];
+        for (int row = 0; row < side; row++) {
+            for (int col = 0; col < side; col++) {
+                cells[row * side + col] = (byte) quiz[row][col];
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * Get the number of times the strategy fired.
+     * 
+     * @param strategy The built-in strategy, SudokuSolver.NACKED_SINGLE ..
+     *                 COLOURING, below SudokuSolver.STRATEGIES.
+     * @return The number of times.
+     */
+    public int getUsage(int strategy) {
+        return usage[strategy];
+    }
+
+    /**
+     * Get the number of cells which the strategies could not fill.
+     * 
+     * @return The number of cells, 0 if the quiz is solved by logic alone.
+     */
+    public int getRemaining() {
+        return remaining;
+    }
+
+    /**
+     * Check if the quiz is solved by the strategies without guessing.
+     * 
+     * @return true if solved by logic alone.
+     */
+    public boolean isSolvedByLogic() {
+        return remaining == 0;
+    }
+
+    /**
+     * Get an upper bound of the score of a quiz of the size. Each time a
+     * strategy fires it places a value or removes a candidate, so a strategy
+     * fires at most once per candidate of the blank cells.
+     * 
+     * @param size The quiz size.
+     * @return The bound.
+     */
+    public static int getMaxScore(int size) {
+        int side = size * size;
+        int heaviest = 0;
+        for (int weight : WEIGHTS) {
+            heaviest = Math.max(heaviest, weight);
+        }
+        return side * side * (side * heaviest + GUESS);
+    }
+
+    /**
+     * Get the difficulty score.
+     * 
+     * @return The score, higher is harder.
+     */
+    public int getScore() {
+        return score;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder("score " + score + " (");
+        for (int strategy = 0; strategy < usage.length; strategy++) {
+            if (usage[strategy] > 0) {
+                text.append(SudokuSolver.STRATEGY_NAMES[strategy]).append(" ").append(usage[strategy]).append(", ");
+            }
+        }
+        return text.append("guess ").append(remaining).append(")").toString();
+    }
+}
@@ -0,0 +1,452 @@
+package sudoku;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Exact solver by bitmask backtracking.
+ * Nacked Singles and Hidden Singles are propagated after every guess, and
+ * the cell with the fewest candidates is guessed next, so that most grids
+ * are solved with few guesses. Changes are recorded on a trail and undone
+ * on backtracking, so the search does not allocate.
+ * A node limit bounds the guesses of each search, for callers which must not
+ * spend unbounded time on a crafted board. A search which runs out of nodes
+ * stops as if no solution was found, and isExhausted() tells the two apart.
+ */
+class SudokuSearch {
+    private final int side; // Number of cells in a row, column or box.
+    private final long all; // Mask of all values.
+    private RandomGenerator random; // Random order of values, or null to try values in ascending order.
+
+    private final int[][] units; // Cells of the rows, columns and then boxes.
+    private final int[][] peers; // Cells sharing a row, column or box with each cell.
+    private final int[][] cellUnits; // Row, column and box unit of each cell.
+    private final int[] rowOf, colOf; // Row and column of each cell.
+
+    private final long[] candidates; // Candidates of each cell, bit (value - 1) is set if value is possible.
+    private final boolean[] placed; // true if the value of the cell has been removed from its peers.
+    private int placedCount; // Number of placed cells.
+
+    private final int[] trailCell; // Changed cell, or ~cell for a placed cell.
+    private final long[] trailMask; // Old candidates of the changed cell.
+    private int trailSize; // Number of entries in the trail.
+    private final int[] queue; // Cells with a single candidate to place.
+    private int queueSize; // Number of cells in the queue.
+    private final boolean[] dirty; // true if the unit changed since its last Hidden Single check.
+    private int solutionLimit; // Stop searching when this many solutions are found.
+    private int solutionCount; // Number of solutions found.
+    private long nodeLimit = Long.MAX_VALUE; // Guesses allowed in each search.
+    private long nodes; // Guesses made in the current search.
+    private boolean exhausted; // true if the current search ran out of nodes.
+
+    /**
+     * Constructor for the deterministic search.
+     * 
+     * @param size The quiz size.
+     */
+    public SudokuSearch(int size) {
+        this(size, null);
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param size   The quiz size.
+     * @param random Random order of values to try, or null to try values in
+     *               ascending order.
+     */
+    public SudokuSearch(int size, RandomGenerator random) {
+        this.side = size * size;
+        this.all = -1L >>> (64 - side);
+        this.random = random;
+
+        SudokuIndex index = SudokuIndex.of(size);
+        int cells = index.cells;
+        units = index.units;
+        peers = index.peers;
+        cellUnits = index.cellUnits;
+        rowOf = index.rowOf;
+        colOf = index.colOf;
+
+        candidates = new long[cells];
+        placed = new boolean[cells];
+        trailCell = new int[cells * (side + 1)];
+        trailMask = new long[cells * (side + 1)];
+        queue = new int[cells];
+        dirty = new boolean[side * 3];
+    }
+
+    /**
+     * Set the random numbers for the order of values to try.
+     * 
+     * @param random Random order of values to try, or null to try values in
+     *               ascending order.
+     */
+    public void setRandom(RandomGenerator random) {
+        this.random = random;
+    }
+
+    /**
+     * Set the number of guesses allowed in each search.
+     * 
+     * @param nodeLimit The number of guesses, Long.MAX_VALUE for no limit.
+     */
+    void setNodeLimit(long nodeLimit) {
+        if (nodeLimit < 1) {
+            throw new IllegalArgumentException("Node limit must be positive.");
+        }
+        this.nodeLimit = nodeLimit;
+    }
+
+    /**
+     * Check if the last search ran out of nodes before it finished, so that
+     * its result is not known.
+     * 
+     * @return true: ran out of nodes.
+     */
+    boolean isExhausted() {
+        return exhausted;
+    }
+
+    /**
+     * Solve the board.
+     * 
+     * @param board The board, it is filled with the solution if solvable.
+     * @return true: solved, false: cannot solve.
+     */
+    public boolean solve(int[][] board) {
+        solutionLimit = 1;
+        solutionCount = 0;
+        if (!load(board) || !search() || exhausted) {
+            return false;
+        }
+        for (int cell = 0; cell < side * side; cell++) {
+            board[rowOf[cell]][colOf[cell]] = Long.numberOfTrailingZeros(candidates[cell]) + 1;
+        }
+        return true;
+    }
+
+    /**
+     * Solve the flat board.
+     * 
+     * @param board The board, value of cell row * side + col. It is filled with
+     *              the solution if solvable.
+     * @return true: solved, false: cannot solve.
+     */
+    boolean solve(byte[] board) {
+        solutionLimit = 1;
+        solutionCount = 0;
+        if (!load(board) || !search() || exhausted) {
+            return false;
+        }
+        for (int cell = 0; cell < board.length; cell++) {
+            board[cell] = (byte) (Long.numberOfTrailingZeros(candidates[cell]) + 1);
+        }
+        return true;
+    }
+
+    /**
+     * Count the solutions of the board, stopping as soon as limit solutions are
+     * found. The board is not changed.
+     * 
+     * @param board The board.
+     * @param limit The maximum number of solutions to count.
+     * @return The number of solutions, at most limit.
+     */
+    public int countSolutions(int[][] board, int limit) {
+        solutionLimit = limit;
+        solutionCount = 0;
+        if (load(board)) {
+            search();
+        }
+        return solutionCount;
+    }
+
+    /**
+     * Check if the board has exactly one solution.
+     * 
+     * @param board The board.
+     * @return true: unique solution, false: no solution or several solutions.
+     */
+    public boolean isUnique(int[][] board) {
+        return countSolutions(board, 2) == 1;
+    }
+
+    /**
+     * Count the solutions of the flat board, stopping as soon as limit solutions
+     * are found. The board is not changed.
+     * 
+     * @param board The board, value of cell row * side + col.
+     * @param limit The maximum number of solutions to count.
+     * @return The number of solutions, at most limit.
+     */
+    int countSolutions(byte[] board, int limit) {
+        solutionLimit = limit;
+        solutionCount = 0;
+        if (load(board)) {
+            search();
+        }
+        return solutionCount;
+    }
+
+    /**
+     * Check if the flat board has exactly one solution.
+     * 
+     * @param board The board, value of cell row * side + col.
+     * @return true: unique solution, false: no solution or several solutions.
+     */
+    boolean isUnique(byte[] board) {
+        return countSolutions(board, 2) == 1;
+    }
+
+    /**
+     * Check if the board has a solution other than the value at the cell, to
+     * find out if a quiz with a unique solution stays unique when the cell is
+     * erased. Only the solutions without the value are searched, which is
+     * cheaper than counting two solutions of the erased quiz.
+     * 
+     * @param board The board, value of cell row * side + col, with the cell
+     *              erased. It is not changed.
+     * @param cell  The erased cell.
+     * @param value The erased value.
+     * @return true: another solution exists or the nodes ran out, false: the
+     *         value is forced.
+     */
+    boolean hasOtherSolution(byte[] board, int cell, int value) {
+        solutionLimit = 1;
+        solutionCount = 0;
+        if (!load(board)) {
+            return false;
+        }
+        long mask = candidates[cell] & ~(1L << (value - 1));
+        if (mask == 0) {
+            return false;
+        }
+        setCandidates(cell, mask);
+        if ((mask & (mask - 1)) == 0) {
+            queue[queueSize++] = cell;
+        }
+        return propagate() && search();
+    }
+
+    /**
+     * Load the board into the search state.
+     * 
+     * @param board The board.
+     * @return false if the board has conflicting values.
+     */
+    private boolean load(int[][] board) {
+        clear();
+        for (int cell = 0; cell < side * side; cell++) {
+            int value = board[rowOf[cell]][colOf[cell]];
+            if (value != 0) {
+                setCandidates(cell, 1L << (value - 1));
+                queue[queueSize++] = cell;
+            }
+        }
+        return propagate();
+    }
+
+    /**
+     * Load the flat board into the search state.
+     * 
+     * @param board The board, value of cell row * side + col.
+     * @return false if the board has conflicting values.
+     */
+    private boolean load(byte[] board) {
+        clear();
+        for (int cell = 0; cell < board.length; cell++) {
+            int value = board[cell];
+            if (value != 0) {
+                setCandidates(cell, 1L << (value - 1));
+                queue[queueSize++] = cell;
+            }
+        }
+        return propagate();
+    }
+
+    /**
+     * Clear the search state to an empty board.
+     */
+    private void clear() {
+        Arrays.fill(candidates, all);
+        Arrays.fill(placed, false);
+        Arrays.fill(dirty, true);
+        placedCount = 0;
+        trailSize = 0;
+        queueSize = 0;
+        nodes = 0;
+        exhausted = false;
+    }
+
+    /**
+     * Fill the remaining cells by backtracking.
+     * 
+     * @return true: the solution limit is reached or the nodes ran out, false:
+     *         keep searching.
+     */
+    private boolean search() {
+        if (placedCount == side * side) {
+            return ++solutionCount >= solutionLimit;
+        }
+        if (++nodes > nodeLimit) {
+            exhausted = true;
+            return true;
+        }
+
+        // Choose the cell with the fewest candidates.
+        int best = -1;
+        int bestCount = side + 1;
+        for (int cell = 0; cell < side * side; cell++) {
+            if (!placed[cell]) {
+                int count = Long.bitCount(candidates[cell]);
+                if (count < bestCount) {
+                    best = cell;
+                    bestCount = count;
+                    if (count == 2) {
+                        break;
+                    }
+                }
+            }
+        }
+
+        long mask = candidates[best];
+        while (mask != 0) {
+            long bit = nextCandidate(mask);
+            mask &= ~bit;
+
+            int mark = trailSize;
+            setCandidates(best, bit);
+            queue[queueSize++] = best;
+            if (propagate() && search()) {
+                return true;
+            }
+            undo(mark);
+        }
+        return false;
+    }
+
+    /**
+     * Place the queued cells and the Hidden Singles until nothing changes.
+     * 
+     * @return false if a contradiction was found.
+     */
+    private boolean propagate() {
+        while (true) {
+            // Nacked Singles.
+            while (queueSize > 0) {
+                int cell = queue[--queueSize];
+                if (placed[cell]) {
+                    continue;
+                }
+                placed[cell] = true;
+                placedCount++;
+                trailCell[trailSize++] = ~cell;
+
+                long bit = candidates[cell];
+                for (int peer : peers[cell]) {
+                    long mask = candidates[peer];
+                    if ((mask & bit) != 0) {
+                        mask &= ~bit;
+                        if (mask == 0) {
+                            queueSize = 0;
+                            return false;
+                        }
+                        setCandidates(peer, mask);
+                        if ((mask & (mask - 1)) == 0) {
+                            queue[queueSize++] = peer;
+                        }
+                    }
+                }
+            }
+
+            // Hidden Singles.
+            for (int u = 0; u < units.length; u++) {
+                if (!dirty[u]) {
+                    continue;
+                }
+                dirty[u] = false;
+
+                int[] unit = units[u];
+                long seen = 0, more = 0;
+                for (int cell : unit) {
+                    more |= seen & candidates[cell];
+                    seen |= candidates[cell];
+                }
+                if (seen != all) {
+                    queueSize = 0;
+                    return false; // A value has no place left in the unit.
+                }
+                long once = seen & ~more;
+                if (once == 0) {
+                    continue;
+                }
+                for (int cell : unit) {
+                    long current = candidates[cell];
+                    long mask = current & once;
+                    if (mask != 0 && (current & (current - 1)) != 0) {
+                        if ((mask & (mask - 1)) != 0) {
+                            queueSize = 0;
+                            return false; // Two values need the same cell.
+                        }
+                        setCandidates(cell, mask);
+                        queue[queueSize++] = cell;
+                    }
+                }
+            }
+            if (queueSize == 0) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Set the candidates of the cell, recording the old candidates on the trail.
+     * 
+     * @param cell The cell.
+     * @param mask The new candidates.
+     */
+    private void setCandidates(int cell, long mask) {
+        trailCell[trailSize] = cell;
+        trailMask[trailSize++] = candidates[cell];
+        candidates[cell] = mask;
+        for (int unit : cellUnits[cell]) {
+            dirty[unit] = true;
+        }
+    }
+
+    /**
+     * Undo the changes recorded on the trail after the mark.
+     * 
+     * @param mark The trail size to restore.
+     */
+    private void undo(int mark) {
+        while (trailSize > mark) {
+            int cell = trailCell[--trailSize];
+            if (cell >= 0) {
+                candidates[cell] = trailMask[trailSize];
+            } else {
+                placed[~cell] = false;
+                placedCount--;
+            }
+        }
+        queueSize = 0;
+    }
+
+    /**
+     * Pick the next candidate to try.
+     * 
+     * @param mask The candidates not tried yet.
+     * @return The bit of the candidate.
+     */
+    private long nextCandidate(long mask) {
+        if (random == null) {
+            return Long.lowestOneBit(mask);
+        }
+        // To improve the quiz quality, randomize the order of numbers to be attempted.
+        for (int skip = random.nextInt(Long.bitCount(mask)); skip > 0; skip--) {
+            mask &= mask - 1;
+        }
+        return Long.lowestOneBit(mask);
+    }
+}
@@ -0,0 +1,81 @@
+package sudoku;
+
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Bounded pool of deterministic searches of each size, for callers running on
+ * short-lived threads such as a virtual thread per request, where a search per
+ * thread would never be reused.
+ * A search holds trail arrays of about 12 * cells * (side + 1) bytes, some
+ * 200 KB for 25x25 and 3 MB for 64x64, so a pool keeps at most one search per
+ * processor and size. A take() with an empty pool allocates a new search, and
+ * a search given back to a full pool is left to the garbage collector. The
+ * searches of a pool can share a node limit, see SudokuSearch.setNodeLimit().
+ */
+final class SudokuSearchPool {
+    private final ArrayBlockingQueue<SudokuSearch>[] pools; // Idle searches of each size.
+    private final long nodeLimit; // Guesses allowed in each search of the pool.
+
+    /**
+     * Constructor keeping one search per processor and size at most.
+     */
+    SudokuSearchPool() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructor of searches without a node limit.
+     * 
+     * @param capacity The number of idle searches to keep of each size.
+     */
+    SudokuSearchPool(int capacity) {
+        this(capacity, Long.MAX_VALUE);
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param capacity  The number of idle searches to keep of each size.
+     * @param nodeLimit The guesses allowed in each search, Long.MAX_VALUE for
+     *                  no limit.
+     */
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    SudokuSearchPool(int capacity, long nodeLimit) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1.");
+        }
+        if (nodeLimit < 1) {
+            throw new IllegalArgumentException("Node limit must be positive.");
+        }
+        this.nodeLimit = nodeLimit;
+        pools = new ArrayBlockingQueue[9];
+        for (int size = 2; size < pools.length; size++) {
+            pools[size] = new ArrayBlockingQueue<>(capacity);
+        }
+    }
+
+    /**
+     * Take an idle search of the size, or allocate one.
+     * 
+     * @param size The quiz size. (2 .. 8)
+     * @return The search, to be given back by give().
+     */
+    SudokuSearch take(int size) {
+        SudokuSearch search = pools[size].poll();
+        if (search == null) {
+            search = new SudokuSearch(size);
+            search.setNodeLimit(nodeLimit);
+        }
+        return search;
+    }
+
+    /**
+     * Give back a search taken from the pool.
+     * 
+     * @param size   The quiz size of the search.
+     * @param search The search, not used by the caller any more.
+     */
+    void give(int size, SudokuSearch search) {
+        pools[size].offer(search);
+    }
+}
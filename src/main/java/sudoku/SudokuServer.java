@@ -0,0 +1,538 @@
+package sudoku;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Headless HTTP service to generate, solve, hint and validate quizzes, on the
+ * HTTP server of the JDK.
+ * A quiz is sent as the q parameter or the request body, one character per
+ * cell in row order: '.' or '0' for blank cells, '1' .. '9', then 'A' .. 'Z',
+ * 'a' .. 'z', '+', '/' and '@' for the values 10 .. 64. A body of type
+ * application/octet-stream is a SudokuCodec record, and format=binary asks for
+ * the quiz or solution in the response as a SudokuCodec record.
+ * Endpoints:
+ * - /generate?size=3&level=5&seed=1&unique=true: a new quiz.
+ * - /solve: the solution and "logic" or "search", or "unsolvable".
+ * - /hint: the first hint as "r0c1 = 5", or "none".
+ * - /validate: "unique", "multiple", "unsolvable" or "conflict".
+ * - /metrics: requests, throughput and latency histogram of each endpoint.
+ * Requests run on a virtual thread each when the JDK has them, and on a cached
+ * thread pool otherwise. Solutions and hints come from a SudokuSolutionCache.
+ * Generating takes up to about 0.4 s for 9x9 level 7, so at most one quiz per
+ * processor is generated at once, and other generate requests get 503. Solving
+ * a sparse quiz backtracks, 0.6 s for an empty 64x64 grid, so /solve, /hint and
+ * /validate take quizzes up to 25x25 and solve at most one quiz per processor
+ * at once, and other requests get 503. The backtracking of each request is
+ * limited to MAX_SEARCH_NODES guesses, and a quiz which needs more gets 503.
+ */
+public class SudokuServer {
+    private static final String DIGITS = "123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz+/@"; // Value characters.
+    private static final int MAX_BODY = 1 << 16; // Longest request body.
+    private static final int MAX_GENERATE_SIZE = 5; // Largest size to generate, as larger quizzes take seconds.
+    private static final int MAX_SOLVE_SIZE = 5; // Largest size to solve, hint or validate.
+    private static final long MAX_SEARCH_NODES = 50_000; // Guesses to solve or validate, about 0.3 s for 25x25.
+    private static final int BUCKETS = 32; // Latency buckets, bucket i under 2^i microseconds.
+
+    private final HttpServer server; // HTTP server.
+    private final ExecutorService executor; // Executor of the requests.
+    private final SudokuSolutionCache cache; // Solutions and hints of the quizzes seen.
+    private final Semaphore generating; // Permits to generate, one per processor.
+    private final Semaphore solving; // Permits to solve, hint or validate, one per processor.
+    private final SudokuSearchPool searches; // Backtracking solvers for /validate.
+    private final Map<String, Metrics> metrics; // Metrics of each endpoint, in the order of the endpoints.
+    private final long started; // Start time from System.nanoTime().
+
+    /**
+     * Constructor. The server is started by start().
+     * 
+     * @param port       The port, 0 for any free port.
+     * @param maxEntries The number of quizzes to keep in the solution cache.
+     * @throws IOException If the port cannot be bound.
+     */
+    public SudokuServer(int port, int maxEntries) throws IOException {
+        // The headers and the body go out in separate writes, and with Nagle's algorithm the body waits for the
+        // delayed acknowledgement of the headers, about 40 ms per request on a kept-alive connection.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        server = HttpServer.create(new InetSocketAddress(port), 0);
+        executor = newExecutor();
+        server.setExecutor(executor);
+        cache = new SudokuSolutionCache(maxEntries, maxEntries * 1024L, SudokuPipeline.ALL, MAX_SEARCH_NODES);
+        generating = new Semaphore(Runtime.getRuntime().availableProcessors());
+        solving = new Semaphore(Runtime.getRuntime().availableProcessors());
+        searches = new SudokuSearchPool(Runtime.getRuntime().availableProcessors(), MAX_SEARCH_NODES);
+        metrics = new LinkedHashMap<>();
+        started = System.nanoTime();
+
+        server.createContext("/generate", new Handler("generate") {
+            @Override
+            byte[] respond(HttpExchange exchange, Map<String, String> query) {
+                int size = intParameter(query, "size", 3);
+                int level = intParameter(query, "level", Math.min(5, size * size - 1));
+                boolean unique = Boolean.parseBoolean(query.getOrDefault("unique", "true"));
+                if (size < 2 || size > MAX_GENERATE_SIZE || level < 1 || level > 7 || level >= size * size) {
+                    throw new IllegalArgumentException("Size must be 2 .. " + MAX_GENERATE_SIZE
+                            + " and level 1 .. 7, less than size * size.");
+                }
+                Long seed = query.containsKey("seed") ? Long.valueOf(query.get("seed")) : null;
+
+                // The quiz allocates its searches, so only after a permit is taken.
+                acquire(generating);
+                SudokuQuiz quiz;
+                try {
+                    quiz = seed != null ? new SudokuQuiz(size, level, seed) : new SudokuQuiz(size, level);
+                    quiz.newQuiz(unique);
+                } finally {
+                    generating.release();
+                }
+                return grid(exchange, query, quiz.getQuizSnapshot());
+            }
+        });
+        server.createContext("/solve", new Handler("solve") {
+            @Override
+            byte[] respond(HttpExchange exchange, Map<String, String> query) throws IOException {
+                SudokuSolutionCache.Result result = solve(readQuiz(exchange, query));
+                if (result.getSolution() == null) {
+                    return text("unsolvable\n");
+                }
+                if ("binary".equals(query.get("format"))) {
+                    return grid(exchange, query, result.getSolution());
+                }
+                return text(format(result.getSolution()) + "\n" + (result.isSolvedByLogic() ? "logic" : "search")
+                        + "\n");
+            }
+        });
+        server.createContext("/hint", new Handler("hint") {
+            @Override
+            byte[] respond(HttpExchange exchange, Map<String, String> query) throws IOException {
+                SudokuSolutionCache.Result result = solve(readQuiz(exchange, query));
+                if (result.getHintCount() == 0) {
+                    return text("none\n");
+                }
+                return text("r" + result.getHintRow(0) + "c" + result.getHintCol(0) + " = " + result.getHintValue(0)
+                        + "\n");
+            }
+        });
+        server.createContext("/validate", new Handler("validate") {
+            @Override
+            byte[] respond(HttpExchange exchange, Map<String, String> query) throws IOException {
+                SudokuGrid grid = readQuiz(exchange, query);
+                int size = solvableSize(grid);
+                for (int[] unit : SudokuIndex.of(size).units) {
+                    long seen = 0;
+                    for (int cell : unit) {
+                        long bit = grid.get(cell) == 0 ? 0 : 1L << (grid.get(cell) - 1);
+                        if ((seen & bit) != 0) {
+                            return text("conflict\n");
+                        }
+                        seen |= bit;
+                    }
+                }
+                acquire(solving);
+                SudokuSearch search = searches.take(size);
+                int solutions;
+                try {
+                    solutions = search.countSolutions(grid.toBytes(), 2);
+                    if (search.isExhausted()) {
+                        throw new IllegalStateException("Search ran out of nodes.");
+                    }
+                } finally {
+                    searches.give(size, search);
+                    solving.release();
+                }
+                return text(solutions == 0 ? "unsolvable\n" : solutions == 1 ? "unique\n" : "multiple\n");
+            }
+        });
+        server.createContext("/metrics", new Handler("metrics") {
+            @Override
+            byte[] respond(HttpExchange exchange, Map<String, String> query) {
+                return text(report());
+            }
+        });
+    }
+
+    /**
+     * Make the executor of the requests: a virtual thread per request when the
+     * JDK has them, found by reflection so that the code builds on Java 17, or
+     * a cached thread pool.
+     * 
+     * @return The executor.
+     */
+    static ExecutorService newExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    /**
+     * Start serving.
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stop serving, waiting up to a second for the requests in progress.
+     */
+    public void stop() {
+        server.stop(1);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Get the port the server is bound to.
+     * 
+     * @return The port.
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Report the metrics of the endpoints and the cache.
+     * 
+     * @return The report, one line per endpoint and then the histograms.
+     */
+    public String report() {
+        double seconds = (System.nanoTime() - started) / 1e9;
+        StringBuilder text = new StringBuilder();
+        text.append(String.format("uptime %.1f s, executor %s%n", seconds,
+                executor.getClass().getSimpleName()));
+        text.append("endpoint requests errors rps mean_us p50_us p90_us p99_us max_us\n");
+        for (Metrics endpoint : metrics.values()) {
+            endpoint.summary(text, seconds);
+        }
+        for (Metrics endpoint : metrics.values()) {
+            endpoint.histogram(text);
+        }
+        return text.append("cache ").append(cache).append("\n").toString();
+    }
+
+    /**
+     * Get the result of the quiz from the cache, solving it under a permit.
+     * 
+     * @param quiz The quiz.
+     * @return The result.
+     */
+    private SudokuSolutionCache.Result solve(SudokuGrid quiz) {
+        solvableSize(quiz);
+        acquire(solving);
+        try {
+            return cache.get(quiz);
+        } finally {
+            solving.release();
+        }
+    }
+
+    /**
+     * Check that the quiz is small enough to solve.
+     * 
+     * @param quiz The quiz.
+     * @return The quiz size.
+     */
+    private static int solvableSize(SudokuGrid quiz) {
+        int size = (int) Math.round(Math.sqrt(quiz.getSide()));
+        if (size > MAX_SOLVE_SIZE) {
+            throw new IllegalArgumentException("Size must be 2 .. " + MAX_SOLVE_SIZE + ".");
+        }
+        return size;
+    }
+
+    /**
+     * Take a permit without waiting.
+     * 
+     * @param permits The permits.
+     */
+    private static void acquire(Semaphore permits) {
+        if (!permits.tryAcquire()) {
+            throw new IllegalStateException("Busy, retry later.");
+        }
+    }
+
+    /**
+     * Read the quiz of the request, from the q parameter or the body.
+     * 
+     * @param exchange The exchange.
+     * @param query    The query parameters.
+     * @return The quiz.
+     * @throws IOException If the body cannot be read.
+     */
+    private static SudokuGrid readQuiz(HttpExchange exchange, Map<String, String> query) throws IOException {
+        if (query.containsKey("q")) {
+            return parse(query.get("q"));
+        }
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] buffer = new byte[4096];
+            for (int read; (read = in.read(buffer)) > 0;) {
+                body.write(buffer, 0, read);
+                if (body.size() > MAX_BODY) {
+                    throw new IllegalArgumentException("Request body too long.");
+                }
+            }
+        }
+        String type = exchange.getRequestHeaders().getFirst("Content-Type");
+        if (type != null && type.startsWith("application/octet-stream")) {
+            return SudokuCodec.decode(body.toByteArray());
+        }
+        return parse(new String(body.toByteArray(), StandardCharsets.US_ASCII).trim());
+    }
+
+    /**
+     * Parse a quiz of one character per cell.
+     * 
+     * @param text The quiz.
+     * @return The quiz.
+     */
+    static SudokuGrid parse(String text) {
+        int side = (int) Math.round(Math.sqrt(Math.sqrt(text.length())));
+        side *= side;
+        if (side < 4 || side > 64 || side * side != text.length()) {
+            throw new IllegalArgumentException("Quiz must have side * side cells.");
+        }
+        byte[] cells = new byte[side * side];
+        for (int cell = 0; cell < cells.length; cell++) {
+            char c = text.charAt(cell);
+            int value = c == '.' || c == '0' ? 0 : DIGITS.indexOf(c) + 1;
+            if (value < 0 || value > side || value == 0 && c != '.' && c != '0') {
+                throw new IllegalArgumentException("Invalid value '" + c + "'.");
+            }
+            cells[cell] = (byte) value;
+        }
+        return new SudokuGrid(side, cells);
+    }
+
+    /**
+     * Format a quiz as one character per cell.
+     * 
+     * @param grid The quiz.
+     * @return The text.
+     */
+    static String format(SudokuGrid grid) {
+        int side = grid.getSide();
+        StringBuilder text = new StringBuilder(side * side);
+        for (int cell = 0; cell < side * side; cell++) {
+            int value = grid.get(cell);
+            text.append(value == 0 ? '.' : DIGITS.charAt(value - 1));
+        }
+        return text.toString();
+    }
+
+    /**
+     * Encode the grid for the response, as text or as a SudokuCodec record.
+     * 
+     * @param exchange The exchange.
+     * @param query    The query parameters.
+     * @param grid     The grid.
+     * @return The response body.
+     */
+    private static byte[] grid(HttpExchange exchange, Map<String, String> query, SudokuGrid grid) {
+        if ("binary".equals(query.get("format"))) {
+            exchange.getResponseHeaders().set("Content-Type", "application/octet-stream");
+            return SudokuCodec.encode(grid);
+        }
+        return text(format(grid) + "\n");
+    }
+
+    /**
+     * Encode the text for the response.
+     * 
+     * @param text The text.
+     * @return The response body.
+     */
+    private static byte[] text(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Get an int parameter.
+     * 
+     * @param query        The query parameters.
+     * @param name         The name of the parameter.
+     * @param defaultValue The value if the parameter is missing.
+     * @return The value.
+     */
+    private static int intParameter(Map<String, String> query, String name, int defaultValue) {
+        String value = query.get(name);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+
+    /**
+     * Parse the query parameters.
+     * 
+     * @param query The raw query, or null.
+     * @return The parameters.
+     */
+    private static Map<String, String> parseQuery(String query) {
+        Map<String, String> parameters = new HashMap<>();
+        if (query == null) {
+            return parameters;
+        }
+        for (String pair : query.split("&")) {
+            int equals = pair.indexOf('=');
+            String name = equals < 0 ? pair : pair.substring(0, equals);
+            String value = equals < 0 ? "" : pair.substring(equals + 1);
+            parameters.put(URLDecoder.decode(name, StandardCharsets.UTF_8),
+                    URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return parameters;
+    }
+
+    /**
+     * Handler of an endpoint, which measures each request, turns invalid input
+     * into 400 Bad Request and a busy server into 503 Service Unavailable.
+     */
+    private abstract class Handler implements HttpHandler {
+        private final Metrics endpoint; // Metrics of the endpoint.
+
+        Handler(String name) {
+            endpoint = new Metrics(name);
+            metrics.put(name, endpoint);
+        }
+
+        /**
+         * Make the response body.
+         * 
+         * @param exchange The exchange, to set response headers.
+         * @param query    The query parameters.
+         * @return The response body.
+         * @throws IOException If the request cannot be read.
+         */
+        abstract byte[] respond(HttpExchange exchange, Map<String, String> query) throws IOException;
+
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            long start = System.nanoTime();
+            int status = 200;
+            byte[] body;
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=us-ascii");
+            try {
+                body = respond(exchange, parseQuery(exchange.getRequestURI().getRawQuery()));
+            } catch (IllegalArgumentException e) {
+                status = 400;
+                body = text(e.getMessage() + "\n");
+            } catch (IllegalStateException e) {
+                status = 503;
+                body = text(e.getMessage() + "\n");
+            } catch (RuntimeException e) {
+                status = 500;
+                body = text("Internal error.\n");
+            }
+            try (OutputStream out = exchange.getResponseBody()) {
+                exchange.sendResponseHeaders(status, body.length);
+                out.write(body);
+            } finally {
+                endpoint.record(System.nanoTime() - start, status != 200);
+            }
+        }
+    }
+
+    /**
+     * Request count and latency histogram of an endpoint.
+     */
+    private static class Metrics {
+        private final String name; // Name of the endpoint.
+        private final LongAdder requests = new LongAdder(); // Number of requests.
+        private final LongAdder errors = new LongAdder(); // Number of requests answered with an error.
+        private final LongAdder nanos = new LongAdder(); // Total latency.
+        private final AtomicLong max = new AtomicLong(); // Longest latency.
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS); // Requests by latency bucket.
+
+        Metrics(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Record a request.
+         * 
+         * @param elapsed The latency in nanoseconds.
+         * @param error   true if answered with an error.
+         */
+        void record(long elapsed, boolean error) {
+            requests.increment();
+            if (error) {
+                errors.increment();
+            }
+            nanos.add(elapsed);
+            max.accumulateAndGet(elapsed, Math::max);
+            long micros = elapsed / 1000;
+            buckets.incrementAndGet(Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros)));
+        }
+
+        /**
+         * Append the summary line.
+         * 
+         * @param text    The report.
+         * @param seconds The uptime in seconds.
+         */
+        void summary(StringBuilder text, double seconds) {
+            long count = requests.sum();
+            text.append(String.format("%s %d %d %.1f %d %d %d %d %d%n", name, count, errors.sum(), count / seconds,
+                    count == 0 ? 0 : nanos.sum() / count / 1000, percentile(count, 0.5), percentile(count, 0.9),
+                    percentile(count, 0.99), max.get() / 1000));
+        }
+
+        /**
+         * Append the non-empty buckets of the histogram, as the upper bound of
+         * the bucket in microseconds and the number of requests.
+         * 
+         * @param text The report.
+         */
+        void histogram(StringBuilder text) {
+            text.append(name).append(" histogram");
+            for (int i = 0; i < BUCKETS; i++) {
+                long count = buckets.get(i);
+                if (count > 0) {
+                    text.append(" <").append(1L << i).append("us:").append(count);
+                }
+            }
+            text.append("\n");
+        }
+
+        /**
+         * Get the upper bound of the bucket holding the percentile.
+         * 
+         * @param count    The number of requests.
+         * @param fraction The percentile, 0.5 for the median.
+         * @return The latency in microseconds, 0 without requests.
+         */
+        private long percentile(long count, double fraction) {
+            long rank = (long) Math.ceil(count * fraction);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS && count > 0; i++) {
+                seen += buckets.get(i);
+                if (seen >= rank) {
+                    return 1L << i;
+                }
+            }
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package sudoku;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Solver bound to a quiz for hints while the player edits the board.
+ * Values set on blank cells are placed into the solver state, and undo takes
+ * them back from its trail, so the candidates and the reductions found so far
+ * are kept. The solver is rebuilt from the board only after a change it cannot
+ * follow: overwriting a value, a value which is not a candidate, a reset or a
+ * new quiz.
+ */
+public class SudokuSession {
+    private final SudokuQuiz quiz; // Quiz to give hints for.
+    private final SudokuQuiz.Listener listener; // Listener of the quiz changes.
+    private SudokuSolver solver; // Solver state of the board, or null to rebuild it.
+    private final Deque<Integer> marks; // Trail mark before each placed value, the last placed value first.
+    private int rebuilds; // Number of times the solver was built from the board.
+
+    /**
+     * Constructor.
+     * 
+     * @param quiz The quiz.
+     */
+    public SudokuSession(SudokuQuiz quiz) {
+        this.quiz = quiz;
+        this.marks = new ArrayDeque<>();
+        this.listener = new SudokuQuiz.Listener() {
+            @Override
+            public void boardChanged(int type, int[] cells) {
+                switch (type) {
+                    case SudokuQuiz.SET:
+                        set(cells[0]);
+                        break;
+                    case SudokuQuiz.UNDO:
+                        undo();
+                        break;
+                    default:
+                        invalidate();
+                }
+            }
+        };
+        quiz.addListener(listener);
+    }
+
+    /**
+     * Get the next hint for the current board. Only the reductions needed for
+     * this hint are applied, and the same hint is returned until the board
+     * changes.
+     * 
+     * @return The hint, or null if the strategies find no hints.
+     */
+    public SudokuSolver.Hint getHint() {
+        if (solver == null) {
+            solver = new SudokuSolver(quiz);
+            rebuilds++;
+        }
+        return solver.nextHint();
+    }
+
+    /**
+     * Get the number of times the solver state was built from the board.
+     * 
+     * @return The number of times.
+     */
+    public int getRebuilds() {
+        return rebuilds;
+    }
+
+    /**
+     * Stop following the quiz.
+     */
+    public void close() {
+        quiz.removeListener(listener);
+        invalidate();
+    }
+
+    /**
+     * Place the value set on the cell.
+     * 
+     * @param cell The cell index.
+     */
+    private void set(int cell) {
+        if (solver == null) {
+            return;
+        }
+        int side = quiz.getSide();
+        int row = cell / side;
+        int col = cell % side;
+        int mark = solver.mark();
+        if (solver.place(row, col, quiz.getValue(row, col))) {
+            marks.push(mark);
+        } else {
+            invalidate();
+        }
+    }
+
+    /**
+     * Take back the last placed value.
+     */
+    private void undo() {
+        if (solver == null || marks.isEmpty()) {
+            invalidate();
+            return;
+        }
+        solver.undo(marks.pop());
+    }
+
+    /**
+     * Drop the solver state, to be rebuilt by the next hint.
+     */
+    private void invalidate() {
+        solver = null;
+        marks.clear();
+    }
+}
@@ -0,0 +1,382 @@
+package sudoku;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache of the solutions and hints of quizzes, so that a quiz seen before is
+ * answered with one lookup.
+ * The key is the quiz packed by SudokuCodec, compared in full, and its hash
+ * chooses one of the stripes. Each stripe is a map in access order with its own
+ * lock, and evicts its least recently used entries when it holds more than its
+ * share of the entries or of the weight, the estimated bytes of the entries.
+ * The shares add up to the limits, and an entry heavier than the share of its
+ * stripe is not kept.
+ * Two threads missing the same quiz at once both solve it, and the second
+ * result replaces the first. The backtracking searches of the misses come from
+ * a SudokuSearchPool, as a search per thread would be allocated on every miss
+ * when each request runs on a new virtual thread. With a node limit, a miss
+ * whose search runs out of nodes throws and is not kept.
+ */
+public class SudokuSolutionCache {
+    private static final int STRIPES = 16; // Most stripes, a power of 2.
+    private static final long MIN_STRIPE_WEIGHT = 1 << 12; // Least weight of a stripe, a few entries of 9x9.
+    private static final int ENTRY_WEIGHT = 64; // Estimated bytes of an entry besides its arrays.
+
+    private final Stripe[] stripes; // Maps of the entries, by the hash of the key, a power of 2 stripes.
+    private final SudokuPipeline pipeline; // Strategies for the hints.
+    private final SudokuSearchPool searches; // Backtracking solvers of each size.
+    private final LongAdder hits = new LongAdder(); // Number of lookups found in the cache.
+    private final LongAdder misses = new LongAdder(); // Number of lookups solved.
+    private final LongAdder evictions = new LongAdder(); // Number of entries evicted.
+
+    /**
+     * Constructor.
+     * 
+     * @param maxEntries The number of entries to keep at most.
+     * @param maxWeight  The estimated bytes of the entries to keep at most.
+     */
+    public SudokuSolutionCache(int maxEntries, long maxWeight) {
+        this(maxEntries, maxWeight, SudokuPipeline.ALL);
+    }
+
+    /**
+     * Constructor with the strategies for the hints.
+     * 
+     * @param maxEntries The number of entries to keep at most.
+     * @param maxWeight  The estimated bytes of the entries to keep at most.
+     * @param pipeline   The strategies for the hints.
+     */
+    public SudokuSolutionCache(int maxEntries, long maxWeight, SudokuPipeline pipeline) {
+        this(maxEntries, maxWeight, pipeline, Long.MAX_VALUE);
+    }
+
+    /**
+     * Constructor with the strategies for the hints and a node limit of the
+     * backtracking.
+     * 
+     * @param maxEntries The number of entries to keep at most.
+     * @param maxWeight  The estimated bytes of the entries to keep at most.
+     * @param pipeline   The strategies for the hints.
+     * @param nodeLimit  The guesses allowed to solve a miss, Long.MAX_VALUE for
+     *                   no limit.
+     */
+    public SudokuSolutionCache(int maxEntries, long maxWeight, SudokuPipeline pipeline, long nodeLimit) {
+        if (maxEntries < 1 || maxWeight < 1) {
+            throw new IllegalArgumentException("Cache limits must be positive.");
+        }
+        this.pipeline = pipeline;
+        this.searches = new SudokuSearchPool(Runtime.getRuntime().availableProcessors(), nodeLimit);
+
+        // Fewer stripes for small limits, and the limits shared out so that the stripes add up to them.
+        long weightStripes = Math.min(STRIPES, Math.max(1, maxWeight / MIN_STRIPE_WEIGHT));
+        stripes = new Stripe[Integer.highestOneBit((int) Math.min(weightStripes, maxEntries))];
+        int n = stripes.length;
+        for (int i = 0; i < n; i++) {
+            stripes[i] = new Stripe(maxEntries / n + (i < maxEntries % n ? 1 : 0),
+                    maxWeight / n + (i < maxWeight % n ? 1 : 0));
+        }
+    }
+
+    /**
+     * Get the result of the quiz, solving it if it is not in the cache.
+     * 
+     * @param quiz The quiz.
+     * @return The result.
+     * @throws IllegalStateException If the search runs out of nodes.
+     */
+    public Result get(SudokuGrid quiz) {
+        int side = quiz.getSide();
+        int size = (int) Math.round(Math.sqrt(side));
+        byte[] cells = quiz.toBytes();
+        Key key = new Key(SudokuCodec.encode(size, cells));
+        Stripe stripe = stripes[key.hash & (stripes.length - 1)];
+        Result result = stripe.get(key);
+        if (result != null) {
+            hits.increment();
+            return result;
+        }
+        misses.increment();
+        result = solve(size, quiz, cells);
+        stripe.put(key, result);
+        return result;
+    }
+
+    /**
+     * Get the result of the current quiz.
+     * 
+     * @param quiz The quiz.
+     * @return The result.
+     */
+    public Result get(SudokuQuiz quiz) {
+        return get(quiz.getQuizSnapshot());
+    }
+
+    /**
+     * Solve the quiz with the strategies, and then with backtracking for the
+     * cells they cannot fill.
+     * 
+     * @param size  The quiz size.
+     * @param quiz  The quiz.
+     * @param board The values of the quiz, filled.
+     * @return The result.
+     */
+    private Result solve(int size, SudokuGrid quiz, byte[] board) {
+        int side = size * size;
+        int blanks = 0;
+        for (byte value : board) {
+            if (value == 0) {
+                blanks++;
+            }
+        }
+        SudokuSolver solver = new SudokuSolver(size, quiz, board, pipeline);
+        int[] hints = new int[board.length];
+        int count = 0;
+        for (SudokuSolver.Hint hint : solver) {
+            hints[count++] = (hint.row * side + hint.col) << 8 | hint.value;
+        }
+
+        SudokuSearch search = searches.take(size);
+        SudokuGrid solution;
+        try {
+            solution = search.solve(board) ? new SudokuGrid(side, board) : null;
+            if (search.isExhausted()) {
+                throw new IllegalStateException("Search ran out of nodes.");
+            }
+        } finally {
+            searches.give(size, search);
+        }
+        return new Result(side, solution, Arrays.copyOf(hints, count), blanks);
+    }
+
+    /**
+     * Remove all entries. The metrics are kept.
+     */
+    public void clear() {
+        for (Stripe stripe : stripes) {
+            stripe.clear();
+        }
+    }
+
+    /**
+     * Get the number of lookups found in the cache.
+     * 
+     * @return The number of hits.
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Get the number of lookups which solved the quiz.
+     * 
+     * @return The number of misses.
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Get the number of entries evicted to keep the limits.
+     * 
+     * @return The number of evictions.
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Get the number of entries.
+     * 
+     * @return The number of entries.
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    /**
+     * Get the estimated bytes of the entries.
+     * 
+     * @return The weight.
+     */
+    public long getWeight() {
+        long weight = 0;
+        for (Stripe stripe : stripes) {
+            weight += stripe.weight();
+        }
+        return weight;
+    }
+
+    @Override
+    public String toString() {
+        return "hits " + getHits() + ", misses " + getMisses() + ", evictions " + getEvictions() + ", entries "
+                + size() + ", weight " + getWeight();
+    }
+
+    /**
+     * Packed quiz as a key.
+     */
+    private static final class Key {
+        final byte[] packed; // Quiz packed by SudokuCodec.
+        final int hash; // Hash of the packed quiz.
+
+        Key(byte[] packed) {
+            this.packed = packed;
+            long hash = 0xcbf29ce484222325L;
+            for (byte b : packed) {
+                hash = (hash ^ (b & 0xff)) * 0x100000001b3L;
+            }
+            this.hash = (int) (hash ^ (hash >>> 32));
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key && Arrays.equals(packed, ((Key) other).packed);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * Entries of a stripe in access order, the least recently used first.
+     */
+    private class Stripe {
+        private final LinkedHashMap<Key, Result> entries = new LinkedHashMap<>(16, 0.75f, true); // Entries.
+        private final int maxEntries; // Entries before evicting.
+        private final long maxWeight; // Weight before evicting.
+        private long weight; // Estimated bytes of the entries.
+
+        Stripe(int maxEntries, long maxWeight) {
+            this.maxEntries = maxEntries;
+            this.maxWeight = maxWeight;
+        }
+
+        synchronized Result get(Key key) {
+            return entries.get(key);
+        }
+
+        synchronized void put(Key key, Result result) {
+            Result old = entries.put(key, result);
+            if (old != null) {
+                weight -= weight(key, old);
+            }
+            weight += weight(key, result);
+            Iterator<Map.Entry<Key, Result>> eldest = entries.entrySet().iterator();
+            while (entries.size() > maxEntries || weight > maxWeight) {
+                Map.Entry<Key, Result> entry = eldest.next();
+                weight -= weight(entry.getKey(), entry.getValue());
+                eldest.remove();
+                evictions.increment();
+            }
+        }
+
+        synchronized void clear() {
+            entries.clear();
+            weight = 0;
+        }
+
+        synchronized int size() {
+            return entries.size();
+        }
+
+        synchronized long weight() {
+            return weight;
+        }
+
+        /**
+         * Estimate the bytes of an entry.
+         * 
+         * @param key    The key.
+         * @param result The result.
+         * @return The bytes.
+         */
+        private long weight(Key key, Result result) {
+            return ENTRY_WEIGHT + key.packed.length + result.hints.length * 4
+                    + (result.solution == null ? 0 : result.side * result.side);
+        }
+    }
+
+    /**
+     * Solution and hints of a quiz.
+     */
+    public static final class Result {
+        private final int side; // Number of cells in a row, column or box.
+        private final SudokuGrid solution; // Solution, or null if the quiz has none.
+        private final int[] hints; // Hints in order, cell << 8 | value.
+        private final int blanks; // Number of blank cells of the quiz.
+
+        Result(int side, SudokuGrid solution, int[] hints, int blanks) {
+            this.side = side;
+            this.solution = solution;
+            this.hints = hints;
+            this.blanks = blanks;
+        }
+
+        /**
+         * Get the solution.
+         * 
+         * @return The solution, or null if the quiz has none.
+         */
+        public SudokuGrid getSolution() {
+            return solution;
+        }
+
+        /**
+         * Check if the strategies fill the quiz without backtracking.
+         * 
+         * @return true if solved by logic alone.
+         */
+        public boolean isSolvedByLogic() {
+            return solution != null && hints.length == blanks;
+        }
+
+        /**
+         * Get the number of hints the strategies found.
+         * 
+         * @return The number of hints.
+         */
+        public int getHintCount() {
+            return hints.length;
+        }
+
+        /**
+         * Get the row of the hint.
+         * 
+         * @param i The hint, from 0.
+         * @return The row.
+         */
+        public int getHintRow(int i) {
+            return (hints[i] >>> 8) / side;
+        }
+
+        /**
+         * Get the column of the hint.
+         * 
+         * @param i The hint, from 0.
+         * @return The column.
+         */
+        public int getHintCol(int i) {
+            return (hints[i] >>> 8) % side;
+        }
+
+        /**
+         * Get the value of the hint.
+         * 
+         * @param i The hint, from 0.
+         * @return The value.
+         */
+        public int getHintValue(int i) {
+            return hints[i] & 0xff;
+        }
+    }
+}
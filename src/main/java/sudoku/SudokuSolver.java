@@ -0,0 +1,1272 @@
+package sudoku;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+class SudokuSolver implements Iterable<SudokuSolver.Hint> {
+    public static final int NACKED_SINGLE = 0; // Nacked Single.
+    public static final int HIDDEN_SINGLE = 1; // Hidden Single reduction.
+    public static final int NAKIDS = 2; // Nacked Pairs, Triplets reduction.
+    public static final int BOX_LINE = 3; // Box/Line reduction.
+    public static final int X_WING = 4; // X-Wing reduction.
+    public static final int SWORDFISH = 5; // Swordfish reduction.
+    public static final int XY_WING = 6; // XY-Wing reduction.
+    public static final int COLOURING = 7; // Simple Colouring reduction.
+    public static final int STRATEGIES = 8; // Number of strategies.
+    public static final String[] STRATEGY_NAMES = { "Nacked Single", "Hidden Single", "Nacked Pairs, Triplets",
+            "Box/Line", "X-Wing", "Swordfish", "XY-Wing", "Simple Colouring" }; // Name of each strategy.
+
+    private final int size; // Quiz size.
+    private final int side; // Number of cells in a row, column or box.
+    private final SudokuGrid quiz; // Sudoku quiz.
+    private final byte[] board; // Quiz board, value of cell row * side + col.
+    private final long[] candidates; // candidates[row * side + col] has bit (value - 1) set if value is a candidate.
+
+    private final SudokuIndex index; // Shared index tables of the size.
+    private final int[] rowOf, colOf; // Row and column of each cell.
+    private final int[][] units; // Cells of the rows, columns and then boxes.
+    private final int[][] peers; // Cells sharing a row, column or box with each cell.
+    private final int[][] cellUnits; // Row, column and box unit of each cell.
+
+    private final int[] singles; // Queue of cells which have become a Nacked Single.
+    private final boolean[] queued; // true if the cell is in the singles queue.
+    private int singlesHead, singlesSize; // Head and size of the singles queue.
+    private final boolean[][] dirty; // dirty[strategy][unit] = true if the unit changed since the last check.
+    private int changes; // Number of candidate changes so far.
+    private final int[] failedAt; // failedAt[strategy] = changes when the strategy last failed, or -1.
+    private final int[] usage; // Number of times each strategy succeeded.
+
+    private final SudokuPipeline pipeline; // Strategies to remove candidates with.
+    private final SudokuStrategy[] strategies; // Registered strategies, by strategy number.
+    private int[] order; // Strategies of the pipeline in the order to try them.
+
+    private final long[] segment, segmentTwice; // Scratch masks for candidates of a line within each box.
+    private long[] linePositions; // Scratch positions of a value in each line, for the fish.
+    private int[] colours; // Scratch colour of each cell, for Simple Colouring.
+    private int[] stack; // Scratch stack of cells, for Simple Colouring.
+
+    private volatile boolean cancelled; // true to stop the iteration of hints.
+
+    private final long[] scanned; // Number of cells read by each strategy.
+    private final long[] nanos; // Time spent in each strategy when profiling or explaining.
+    private boolean profiling; // true to measure the time of each strategy.
+    private List<Step> steps; // Steps since the last placed hint, or null if not explaining.
+    private boolean stepping; // true while a step of a strategy records its changes.
+    private int[] stepUnits = new int[6]; // Units involved in the current step, grown for long colour chains.
+    private int stepUnitCount; // Number of units involved in the current step.
+    private int[] stepCells = new int[0]; // Cells changed by the current step.
+    private long[] stepRemoved = new long[0]; // Candidates removed from each changed cell.
+    private int stepSize; // Number of changed cells of the current step.
+    private Hint single; // Nacked Single found by the last step.
+    private long lastNanos, lastScanned; // Time of the last step and the scanned count before it.
+
+    private boolean tracking; // true to record the changes on the trail for undo().
+    private int[] trailCell = new int[0]; // Changed cell, or ~cell for a placed value.
+    private long[] trailMask = new long[0]; // Old candidates of the changed cell.
+    private int trailSize; // Number of entries in the trail.
+
+    /**
+     * Constructor.
+     * 
+     * @param quiz The quiz.
+     */
+    public SudokuSolver(SudokuQuiz quiz) {
+        this(quiz, SudokuPipeline.ALL);
+    }
+
+    /**
+     * Constructor with the strategies of the pipeline.
+     * 
+     * @param quiz     The quiz.
+     * @param pipeline The pipeline.
+     */
+    public SudokuSolver(SudokuQuiz quiz, SudokuPipeline pipeline) {
+        this(quiz.getSize(), quiz.getQuizSnapshot(), quiz.copyBoard(), pipeline);
+    }
+
+    /**
+     * Constructor for a quiz which is not in a SudokuQuiz.
+     * 
+     * @param size  The quiz size.
+     * @param quiz  The quiz.
+     * @param board The board, value of cell row * side + col, which is filled by
+     *              getHints().
+     */
+    SudokuSolver(int size, SudokuGrid quiz, byte[] board) {
+        this(size, quiz, board, SudokuPipeline.ALL);
+    }
+
+    /**
+     * Constructor for a quiz which is not in a SudokuQuiz, with the strategies
+     * of the pipeline.
+     * 
+     * @param size     The quiz size.
+     * @param quiz     The quiz.
+     * @param board    The board, value of cell row * side + col, which is filled
+     *                 by getHints().
+     * @param pipeline The pipeline.
+     */
+    SudokuSolver(int size, SudokuGrid quiz, byte[] board, SudokuPipeline pipeline) {
+        this.size = size;
+        this.side = size * size;
+        this.quiz = quiz;
+        this.board = board;
+        this.pipeline = pipeline;
+        this.strategies = SudokuPipeline.getStrategies();
+        this.order = pipeline.order();
+
+        index = SudokuIndex.of(size);
+        rowOf = index.rowOf;
+        colOf = index.colOf;
+        units = index.units;
+        peers = index.peers;
+        cellUnits = index.cellUnits;
+
+        candidates = new long[side * side];
+        singles = new int[side * side];
+        queued = new boolean[side * side];
+        dirty = new boolean[BOX_LINE + 1][side * 3]; // The Nacked Single row is unused, it has the singles queue.
+        failedAt = new int[strategies.length];
+        usage = new int[strategies.length];
+        scanned = new long[strategies.length];
+        nanos = new long[strategies.length];
+        segment = new long[size];
+        segmentTwice = new long[size];
+
+        long[] used = new long[side * 3]; // used[unit] has bit (value - 1) set if value is placed in the unit.
+        for (int cell = 0; cell < side * side; cell++) {
+            int value = board[cell];
+            if (value != 0) {
+                long bit = 1L << (value - 1);
+                candidates[cell] = bit;
+                for (int unit : cellUnits[cell]) {
+                    used[unit] |= bit;
+                }
+            }
+        }
+        for (int cell = 0; cell < side * side; cell++) {
+            if (board[cell] == 0) {
+                int[] unit = cellUnits[cell];
+                candidates[cell] = index.all & ~(used[unit[0]] | used[unit[1]] | used[unit[2]]);
+                if (Long.bitCount(candidates[cell]) == 1) {
+                    enqueueSingle(cell);
+                }
+            }
+        }
+        for (boolean[] flags : dirty) {
+            Arrays.fill(flags, true);
+        }
+        Arrays.fill(failedAt, -1);
+    }
+
+    /**
+     * Get the strategies built in the solver, registered first in
+     * SudokuPipeline.
+     * 
+     * @return The strategies, by strategy number.
+     */
+    static SudokuStrategy[] builtins() {
+        SudokuStrategy[] builtins = new SudokuStrategy[STRATEGIES];
+        for (int strategy = 0; strategy < STRATEGIES; strategy++) {
+            builtins[strategy] = new Builtin(strategy);
+        }
+        return builtins;
+    }
+
+    /**
+     * A utility function to print the candidates
+     */
+    public void dumpCandidates() {
+        int width = String.valueOf(side).length(); // Width of a value.
+        String border = "+";
+        for (int col = 0; col < side; col++) {
+            border += "-".repeat(size * width) + "+";
+        }
+        System.out.println(border);
+        for (int row = 0; row < side; row++) {
+            for (int r = 0; r < size; r++) {
+                System.out.print("|");
+                for (int col = 0; col < side; col++) {
+                    for (int c = 0; c < size; c++) {
+                        int value = r * size + c + 1;
+                        boolean candidate = (candidates[row * side + col] & (1L << (value - 1))) != 0;
+                        String text = candidate ? String.valueOf(value) : quiz.get(row, col) == 0 ? "." : " ";
+                        System.out.print(" ".repeat(width - text.length()) + text);
+                    }
+                    System.out.print("|");
+                }
+                System.out.println();
+            }
+            System.out.println(border);
+        }
+    }
+
+    /**
+     * Get the hints for solving the quiz.
+     * Only the cells and units changed by the previous step are checked again.
+     * 
+     * @return Array of hint.
+     */
+    public Hint[] getHints() {
+        List<Hint> hints = new ArrayList<Hint>();
+        for (Hint hint : this) {
+            hints.add(hint);
+        }
+        return hints.toArray(new Hint[hints.size()]);
+    }
+
+    /**
+     * Iterate the hints for solving the quiz. Each step is computed only when it
+     * is requested, and placed on the solver board when it is returned.
+     * 
+     * @return The iterator of hints.
+     */
+    @Override
+    public Iterator<Hint> iterator() {
+        return new Iterator<Hint>() {
+            private Hint next; // Next hint, found by hasNext() and not placed yet.
+
+            @Override
+            public boolean hasNext() {
+                if (next == null && !cancelled) {
+                    next = nextHint();
+                }
+                return next != null && !cancelled;
+            }
+
+            @Override
+            public Hint next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Hint hint = next;
+                next = null;
+                place(hint.row, hint.col, hint.value);
+                usage[NACKED_SINGLE]++;
+                return hint;
+            }
+        };
+    }
+
+    /**
+     * Stream the hints for solving the quiz, computing each step only when it is
+     * requested.
+     * 
+     * @return The stream of hints.
+     */
+    public Stream<Hint> stream() {
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(iterator(), Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Cancel the iteration of hints, for example from another thread. No more
+     * hints are returned after the step in progress.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Check if the iteration of hints was cancelled.
+     * 
+     * @return true: cancelled.
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Find the next hint without placing it. The reductions are applied only
+     * until a Nacked Single appears, and the same hint is returned again until
+     * its cell is filled by place().
+     * 
+     * @return The hint, or null if the strategies find no more hints.
+     */
+    public Hint nextHint() {
+        if (pipeline.isAdaptive()) {
+            order = pipeline.order();
+        }
+        while (true) {
+            if (reduce(NACKED_SINGLE)) {
+                Hint hint = single;
+                if (steps != null) {
+                    hint.steps = new ArrayList<Step>(steps);
+                    hint.steps.add(new Step(NACKED_SINGLE, cellUnits[hint.row * side + hint.col].clone(), new int[0],
+                            new long[0], lastNanos, scanned[NACKED_SINGLE] - lastScanned));
+                }
+                return hint;
+            }
+
+            if (!reduceCandidates()) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Remove candidates with the first strategy of the pipeline which
+     * succeeds.
+     * 
+     * @return true if any strategy removed candidates.
+     */
+    private boolean reduceCandidates() {
+        for (int strategy : order) {
+            if (reduce(strategy)) {
+                usage[strategy]++;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Run one step of the strategy, measuring its cost and recording the step
+     * when explaining. A strategy which failed is skipped until any candidate
+     * changes.
+     * 
+     * @param strategy The strategy.
+     * @return true if the strategy found a hint or reduced candidates.
+     */
+    private boolean reduce(int strategy) {
+        if (failedAt[strategy] == changes) {
+            return false;
+        }
+        boolean adaptive = pipeline.isAdaptive() && strategy != NACKED_SINGLE;
+        boolean timed = profiling || steps != null || adaptive;
+        long start = timed ? System.nanoTime() : 0;
+        long scannedBefore = scanned[strategy];
+        stepping = steps != null;
+        stepUnitCount = 0;
+        stepSize = 0;
+
+        boolean reduced = strategies[strategy].reduce(this);
+
+        stepping = false;
+        long elapsed = timed ? System.nanoTime() - start : 0;
+        nanos[strategy] += elapsed;
+        lastNanos = elapsed;
+        lastScanned = scannedBefore;
+        if (!reduced) {
+            failedAt[strategy] = changes;
+        }
+        if (adaptive) {
+            pipeline.record(strategy, elapsed, reduced);
+        }
+        if (reduced && steps != null && strategy != NACKED_SINGLE) {
+            steps.add(new Step(strategy, Arrays.copyOf(stepUnits, stepUnitCount), Arrays.copyOf(stepCells, stepSize),
+                    Arrays.copyOf(stepRemoved, stepSize), elapsed, scanned[strategy] - scannedBefore));
+        }
+        return reduced;
+    }
+
+    /**
+     * Run one step of a built-in strategy.
+     * 
+     * @param strategy The strategy.
+     * @return true if the strategy found a hint or reduced candidates.
+     */
+    private boolean reduceBuiltin(int strategy) {
+        switch (strategy) {
+            case NACKED_SINGLE:
+                single = findNackedSingle();
+                return single != null;
+            case HIDDEN_SINGLE:
+                return hiddenSingleReduction();
+            case NAKIDS:
+                return nakidsReduction();
+            case BOX_LINE:
+                return boxLineReduction();
+            case X_WING:
+                return fishReduction(X_WING, 2);
+            case SWORDFISH:
+                return fishReduction(SWORDFISH, 3);
+            case XY_WING:
+                return xyWingReduction();
+            default:
+                return colouringReduction();
+        }
+    }
+
+    /**
+     * Turn on or off the explanations of the hints. When off, nothing is
+     * allocated for them.
+     * 
+     * @param explaining true to attach the steps to each hint.
+     */
+    public void setExplaining(boolean explaining) {
+        steps = explaining ? new ArrayList<Step>() : null;
+    }
+
+    /**
+     * Turn on or off measuring the time of each strategy.
+     * 
+     * @param profiling true to measure the time.
+     */
+    public void setProfiling(boolean profiling) {
+        this.profiling = profiling;
+    }
+
+    /**
+     * Get the number of cells read by the strategy.
+     * 
+     * @param strategy The strategy.
+     * @return The number of cells.
+     */
+    public long getScanned(int strategy) {
+        return scanned[strategy];
+    }
+
+    /**
+     * Get the time spent in the strategy while profiling or explaining.
+     * 
+     * @param strategy The strategy.
+     * @return The time in nanoseconds.
+     */
+    public long getNanos(int strategy) {
+        return nanos[strategy];
+    }
+
+    /**
+     * Get the number of cells in a row, column or box.
+     * 
+     * @return The number of cells.
+     */
+    public int getSide() {
+        return side;
+    }
+
+    /**
+     * Get the value of the cell.
+     * 
+     * @param cell The cell index, row * side + col.
+     * @return The value, 0 for a blank cell.
+     */
+    public int getValue(int cell) {
+        return board[cell];
+    }
+
+    /**
+     * Get the candidates of the cell.
+     * 
+     * @param cell The cell index.
+     * @return The candidates, bit (value - 1) set if value is a candidate.
+     */
+    public long getCandidates(int cell) {
+        return candidates[cell];
+    }
+
+    /**
+     * Get the cells of the unit.
+     * 
+     * @param unit The unit, rows, then columns, then boxes.
+     * @return The cells, shared and not to be changed.
+     */
+    public int[] getUnit(int unit) {
+        return units[unit];
+    }
+
+    /**
+     * Get the cells sharing a row, column or box with the cell.
+     * 
+     * @param cell The cell index.
+     * @return The cells, shared and not to be changed.
+     */
+    public int[] getPeers(int cell) {
+        return peers[cell];
+    }
+
+    /**
+     * Remove candidates from a blank cell, for the strategies.
+     * 
+     * @param cell The cell index.
+     * @param mask The candidates to remove.
+     * @return true if any candidate was removed.
+     */
+    public boolean eliminate(int cell, long mask) {
+        return board[cell] == 0 && removeCandidates(cell, mask);
+    }
+
+    /**
+     * Add the unit to the units involved in the current step, for the
+     * strategies.
+     * 
+     * @param unit The unit.
+     */
+    void involve(int unit) {
+        if (stepping) {
+            if (stepUnitCount == stepUnits.length) {
+                stepUnits = Arrays.copyOf(stepUnits, stepUnitCount * 2);
+            }
+            stepUnits[stepUnitCount++] = unit;
+        }
+    }
+
+    /**
+     * Add the first unit the two cells share to the units involved in the
+     * current step.
+     * 
+     * @param a The first cell.
+     * @param b The second cell, a peer of the first.
+     */
+    private void involveShared(int a, int b) {
+        for (int unit : cellUnits[a]) {
+            for (int other : cellUnits[b]) {
+                if (unit == other) {
+                    involve(unit);
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Place the value in the blank cell and remove it from the candidates of
+     * the peers.
+     * 
+     * @param row   The row.
+     * @param col   The column.
+     * @param value The value.
+     * @return false if the cell is not blank or the value is not a candidate,
+     *         and nothing is changed.
+     */
+    boolean place(int row, int col, int value) {
+        int cell = row * side + col;
+        if (board[cell] != 0 || (candidates[cell] & (1L << (value - 1))) == 0) {
+            return false;
+        }
+        if (tracking) {
+            record(~cell, 0);
+        }
+        board[cell] = (byte) value;
+        fixCandidate(row, col, value);
+        if (steps != null) {
+            steps.clear();
+        }
+        return true;
+    }
+
+    /**
+     * Start recording the changes, so that they can be undone.
+     * 
+     * @return The mark of the current state for undo().
+     */
+    int mark() {
+        tracking = true;
+        return trailSize;
+    }
+
+    /**
+     * Undo the changes recorded after the mark. The reductions found after the
+     * mark are undone as well, and are found again by the next hint.
+     * 
+     * @param mark The mark from mark().
+     */
+    void undo(int mark) {
+        while (trailSize > mark) {
+            int cell = trailCell[--trailSize];
+            if (cell >= 0) {
+                candidates[cell] = trailMask[trailSize];
+            } else {
+                board[~cell] = 0;
+            }
+        }
+
+        // Queue the Nacked Singles again and check all units.
+        singlesHead = singlesSize = 0;
+        Arrays.fill(queued, false);
+        for (int cell = 0; cell < side * side; cell++) {
+            if (board[cell] == 0 && Long.bitCount(candidates[cell]) == 1) {
+                enqueueSingle(cell);
+            }
+        }
+        for (boolean[] flags : dirty) {
+            Arrays.fill(flags, true);
+        }
+        changes++;
+    }
+
+    /**
+     * Record a change on the trail.
+     * 
+     * @param cell The changed cell, or ~cell for a placed value.
+     * @param mask The old candidates.
+     */
+    private void record(int cell, long mask) {
+        if (trailSize == trailCell.length) {
+            int length = Math.max(side * side, trailSize * 2);
+            trailCell = Arrays.copyOf(trailCell, length);
+            trailMask = Arrays.copyOf(trailMask, length);
+        }
+        trailCell[trailSize] = cell;
+        trailMask[trailSize++] = mask;
+    }
+
+    /**
+     * Get the number of times the strategy succeeded in getHints().
+     * 
+     * @param strategy The strategy number, NACKED_SINGLE .. COLOURING or a
+     *                 registered one.
+     * @return The number of times.
+     */
+    public int getUsage(int strategy) {
+        return usage[strategy];
+    }
+
+    /**
+     * Add the cell to the Nacked Single queue.
+     * 
+     * @param cell The cell index.
+     */
+    private void enqueueSingle(int cell) {
+        if (!queued[cell]) {
+            queued[cell] = true;
+            singles[(singlesHead + singlesSize++) % singles.length] = cell;
+        }
+    }
+
+    /**
+     * Mark the row, column and box of the cell as changed.
+     * 
+     * @param cell The cell index.
+     */
+    private void markDirty(int cell) {
+        for (int unit : cellUnits[cell]) {
+            dirty[HIDDEN_SINGLE][unit] = true;
+            dirty[NAKIDS][unit] = true;
+            dirty[BOX_LINE][unit] = true;
+        }
+        changes++;
+    }
+
+    /**
+     * Set the candidates of the cell.
+     * 
+     * @param cell The cell index.
+     * @param mask The new candidates.
+     * @return true if the candidates have changed.
+     */
+    private boolean setCandidates(int cell, long mask) {
+        if (candidates[cell] == mask) {
+            return false;
+        }
+        if (tracking) {
+            record(cell, candidates[cell]);
+        }
+        if (stepping) {
+            if (stepSize == stepCells.length) {
+                stepCells = Arrays.copyOf(stepCells, Math.max(side, stepSize * 2));
+                stepRemoved = Arrays.copyOf(stepRemoved, stepCells.length);
+            }
+            stepCells[stepSize] = cell;
+            stepRemoved[stepSize++] = candidates[cell] & ~mask;
+        }
+        candidates[cell] = mask;
+        markDirty(cell);
+        if (Long.bitCount(mask) == 1 && board[cell] == 0) {
+            enqueueSingle(cell);
+        }
+        return true;
+    }
+
+    /**
+     * Remove the candidates in mask from the cell.
+     * 
+     * @param cell The cell index.
+     * @param mask The candidates to remove.
+     * @return true if any candidate was removed.
+     */
+    private boolean removeCandidates(int cell, long mask) {
+        return setCandidates(cell, candidates[cell] & ~mask);
+    }
+
+    /**
+     * Fix the candidate for the cell.
+     * 
+     * @param row   The row of the cell.
+     * @param col   The column of the cell.
+     * @param value The candidate value.
+     */
+    private void fixCandidate(int row, int col, int value) {
+        int cell = row * side + col;
+        long bit = 1L << (value - 1);
+        for (int peer : peers[cell]) {
+            removeCandidates(peer, bit);
+        }
+        setCandidates(cell, bit);
+        markDirty(cell);
+    }
+
+    /**
+     * Find the Nacked Single.
+     * 
+     * @return position of the Nacked Single.
+     */
+    private Hint findNackedSingle() {
+        while (singlesSize > 0) {
+            int cell = singles[singlesHead];
+            long mask = candidates[cell];
+            scanned[NACKED_SINGLE]++;
+            if (board[cell] == 0 && Long.bitCount(mask) == 1) {
+                return new Hint(rowOf[cell], colOf[cell], Long.numberOfTrailingZeros(mask) + 1); // Kept in the queue until placed.
+            }
+
+            singlesHead = (singlesHead + 1) % singles.length;
+            singlesSize--;
+            queued[cell] = false;
+        }
+        return null;
+    }
+
+    /*
+     * Hidden Single reduction.
+     * 
+     * @return true if the candidate reduction is successful.
+     */
+    private boolean hiddenSingleReduction() {
+        for (int u = 0; u < units.length; u++) {
+            if (!dirty[HIDDEN_SINGLE][u]) {
+                continue;
+            }
+            dirty[HIDDEN_SINGLE][u] = false;
+
+            // Collect the candidates that appear exactly once in the unit.
+            long seen = 0, more = 0;
+            for (int cell : units[u]) {
+                more |= seen & candidates[cell];
+                seen |= candidates[cell];
+            }
+            scanned[HIDDEN_SINGLE] += side;
+            long once = seen & ~more;
+            if (once == 0) {
+                continue;
+            }
+
+            scanned[HIDDEN_SINGLE] += side;
+            for (int cell : units[u]) {
+                long mask = candidates[cell];
+                if (Long.bitCount(mask) > 1 && (mask & once) != 0) {
+                    involve(u);
+                    setCandidates(cell, Long.lowestOneBit(mask & once));
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Nacked Pairs, Triplets reduction.
+     * If the pairs and triples appear in the row, column, and block, it can
+     * reduce candidates.
+     * 
+     * @return true if the candidate reduction is successful.
+     */
+    private boolean nakidsReduction() {
+        for (int u = 0; u < units.length; u++) {
+            if (!dirty[NAKIDS][u]) {
+                continue;
+            }
+            dirty[NAKIDS][u] = false;
+
+            int[] unit = units[u];
+            scanned[NAKIDS] += side;
+            for (int i = 0; i < unit.length; i++) {
+                long mask = candidates[unit[i]];
+                int length = Long.bitCount(mask);
+                if (length >= 2 && length <= 3) {
+                    int count = length - 1;
+                    scanned[NAKIDS] += unit.length - i - 1;
+                    for (int j = i + 1; j < unit.length; j++) {
+                        if (candidates[unit[j]] == mask) {
+                            count--;
+                        }
+                    }
+                    if (count == 0) {
+                        boolean reduceCandidates = false;
+                        scanned[NAKIDS] += side;
+                        for (int cell : unit) {
+                            if (candidates[cell] != mask) {
+                                reduceCandidates |= removeCandidates(cell, mask);
+                            }
+                        }
+                        if (reduceCandidates) {
+                            involve(u);
+                            return true;
+                        }
+                    }
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Box/Line Reduction.
+     * If a candidate only appears two or three times in a row or column and is all
+     * in the same block, it can reduce candidates.
+     * 
+     * @return true if the candidate reduction is successful.
+     */
+    private boolean boxLineReduction() {
+        // Only rows and columns are lines.
+        for (int u = 0; u < side * 2; u++) {
+            if (!dirty[BOX_LINE][u]) {
+                continue;
+            }
+            dirty[BOX_LINE][u] = false;
+
+            Arrays.fill(segment, 0);
+            Arrays.fill(segmentTwice, 0);
+            int[] unit = units[u];
+            scanned[BOX_LINE] += side;
+            for (int block = 0, i = 0; block < size; block++) {
+                for (int end = i + size; i < end; i++) {
+                    long mask = candidates[unit[i]];
+                    segmentTwice[block] |= segment[block] & mask;
+                    segment[block] |= mask;
+                }
+            }
+
+            long seen = 0, more = 0;
+            for (int block = 0; block < size; block++) {
+                more |= seen & segment[block];
+                seen |= segment[block];
+            }
+
+            long confined = seen & ~more; // Candidates that appear in exactly one segment.
+            while (confined != 0) {
+                long bit = Long.lowestOneBit(confined);
+                confined &= ~bit;
+                for (int block = 0; block < size; block++) {
+                    if ((segmentTwice[block] & bit) != 0) {
+                        boolean reduceCandidates = false;
+                        int line = u < side ? 0 : 1;
+                        int box = cellUnits[unit[block * size]][2];
+                        scanned[BOX_LINE] += side;
+                        for (int cell : units[box]) {
+                            if (cellUnits[cell][line] != u) {
+                                reduceCandidates |= removeCandidates(cell, bit);
+                            }
+                        }
+                        if (reduceCandidates) {
+                            involve(u);
+                            involve(box);
+                            dirty[BOX_LINE][u] = true; // Other candidates of the line may still be confined.
+                            return true;
+                        }
+                    }
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * X-Wing and Swordfish reduction.
+     * If a candidate appears only in the same n columns within n rows, it can be
+     * removed from the other cells of the columns, and the same with rows and
+     * columns swapped.
+     * 
+     * @param strategy The strategy, X_WING or SWORDFISH.
+     * @param n        The number of lines, 2 for X-Wing and 3 for Swordfish.
+     * @return true if the candidate reduction is successful.
+     */
+    private boolean fishReduction(int strategy, int n) {
+        if (linePositions == null) {
+            linePositions = new long[side];
+        }
+
+        for (int value = 1; value <= side; value++) {
+            long bit = 1L << (value - 1);
+            for (int base = 0; base <= side; base += side) { // Rows, then columns as base lines.
+                for (int line = 0; line < side; line++) {
+                    long positions = 0;
+                    int[] unit = units[base + line];
+                    for (int i = 0; i < side; i++) {
+                        if (board[unit[i]] == 0 && (candidates[unit[i]] & bit) != 0) {
+                            positions |= 1L << i;
+                        }
+                    }
+                    linePositions[line] = positions;
+                }
+                scanned[strategy] += side * side;
+                if (findFish(strategy, bit, base, n, 0, 0, 0)) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Find base lines of a fish by adding one line at a time.
+     * 
+     * @param strategy The strategy.
+     * @param bit      The candidate.
+     * @param base     The unit of the first base line, 0 for rows or side for
+     *                 columns.
+     * @param n        The number of lines of the fish.
+     * @param start    The first line to try.
+     * @param lines    The lines chosen so far.
+     * @param cover    The positions of the candidate in the lines chosen so far.
+     * @return true if the candidate reduction is successful.
+     */
+    private boolean findFish(int strategy, long bit, int base, int n, int start, long lines, long cover) {
+        int chosen = Long.bitCount(lines);
+        if (chosen == n) {
+            if (Long.bitCount(cover) != n) {
+                return false;
+            }
+
+            // Remove the candidate from the cover lines outside the base lines.
+            boolean reduceCandidates = false;
+            int other = side - base; // The first unit of the cover lines.
+            for (long c = cover; c != 0; c &= c - 1) {
+                int[] unit = units[other + Long.numberOfTrailingZeros(c)];
+                for (int i = 0; i < side; i++) {
+                    if ((lines & (1L << i)) == 0 && board[unit[i]] == 0) {
+                        reduceCandidates |= removeCandidates(unit[i], bit);
+                    }
+                }
+            }
+            if (reduceCandidates) {
+                for (long l = lines; l != 0; l &= l - 1) {
+                    involve(base + Long.numberOfTrailingZeros(l));
+                }
+                for (long c = cover; c != 0; c &= c - 1) {
+                    involve(other + Long.numberOfTrailingZeros(c));
+                }
+            }
+            return reduceCandidates;
+        }
+
+        for (int line = start; line <= side - (n - chosen); line++) {
+            long positions = linePositions[line];
+            int count = Long.bitCount(positions);
+            if (count >= 2 && count <= n && Long.bitCount(cover | positions) <= n
+                    && findFish(strategy, bit, base, n, line + 1, lines | (1L << line), cover | positions)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * XY-Wing reduction.
+     * If a cell with the candidates XY sees a cell with XZ and a cell with YZ, one
+     * of these two cells is Z, so Z can be removed from the cells which see both.
+     * 
+     * @return true if the candidate reduction is successful.
+     */
+    private boolean xyWingReduction() {
+
+        for (int pivot = 0; pivot < side * side; pivot++) {
+            long xy = candidates[pivot];
+            if (board[pivot] != 0 || Long.bitCount(xy) != 2) {
+                continue;
+            }
+            int[] wings = peers[pivot];
+            scanned[XY_WING] += wings.length;
+            for (int i = 0; i < wings.length; i++) {
+                int first = wings[i];
+                long xz = candidates[first];
+                if (board[first] != 0 || Long.bitCount(xz) != 2 || Long.bitCount(xz & xy) != 1) {
+                    continue;
+                }
+                long z = xz & ~xy;
+                long yz = (xy & ~xz) | z;
+                for (int j = i + 1; j < wings.length; j++) {
+                    int second = wings[j];
+                    if (board[second] != 0 || candidates[second] != yz) {
+                        continue;
+                    }
+
+                    // Remove Z from the cells which see both wings.
+                    boolean reduceCandidates = false;
+                    scanned[XY_WING] += peers[first].length;
+                    for (int cell : peers[first]) {
+                        if (cell != second && cell != pivot && board[cell] == 0 && (candidates[cell] & z) != 0
+                                && sees(cell, second)) {
+                            reduceCandidates |= removeCandidates(cell, z);
+                        }
+                    }
+                    if (reduceCandidates) {
+                        involveShared(pivot, first);
+                        involveShared(pivot, second);
+                        return true;
+                    }
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Simple Colouring reduction.
+     * The cells of a candidate linked by units where it appears exactly twice
+     * are coloured in two alternating colours, one of which is the solution.
+     * If two cells of the same colour see each other, that colour is removed,
+     * and a cell which sees both colours cannot have the candidate.
+     * 
+     * @return true if the candidate reduction is successful.
+     */
+    private boolean colouringReduction() {
+        if (colours == null) {
+            colours = new int[side * side];
+            stack = new int[side * side];
+        }
+
+        for (int value = 1; value <= side; value++) {
+            long bit = 1L << (value - 1);
+            Arrays.fill(colours, 0);
+            int chain = 0;
+            for (int start = 0; start < side * side; start++) {
+                if (colours[start] != 0 || !isConjugate(start, bit)) {
+                    continue;
+                }
+
+                // Colour the chain from the cell with colours chain * 2 + 1 and + 2.
+                chain++;
+                int first = chain * 2 + 1;
+                int count = 0, top = 0;
+                colours[start] = first;
+                stack[top++] = start;
+                while (top > count) {
+                    int cell = stack[count++];
+                    for (int unit : cellUnits[cell]) {
+                        int mate = conjugate(unit, cell, bit);
+                        if (mate >= 0 && colours[mate] == 0) {
+                            colours[mate] = colours[cell] == first ? first + 1 : first;
+                            stack[top++] = mate;
+                        }
+                    }
+                }
+                scanned[COLOURING] += count * 3 * side;
+
+                // Colour wrap: two cells of the same colour in a unit.
+                for (int i = 0; i < count; i++) {
+                    int cell = stack[i];
+                    for (int peer : peers[cell]) {
+                        if (colours[peer] == colours[cell]) {
+                            involveChain(count, bit); // Before the removals break the links.
+                            involveShared(cell, peer);
+                            boolean reduceCandidates = false;
+                            for (int j = 0; j < count; j++) {
+                                if (colours[stack[j]] == colours[cell]) {
+                                    reduceCandidates |= removeCandidates(stack[j], bit);
+                                }
+                            }
+                            if (reduceCandidates) {
+                                return true;
+                            }
+                        }
+                    }
+                }
+
+                // Colour trap: a cell outside this chain, maybe in an earlier one, which sees both colours.
+                boolean reduceCandidates = false;
+                scanned[COLOURING] += side * side;
+                for (int cell = 0; cell < side * side; cell++) {
+                    if (colours[cell] == first || colours[cell] == first + 1 || board[cell] != 0
+                            || (candidates[cell] & bit) == 0) {
+                        continue;
+                    }
+                    boolean seesFirst = false, seesSecond = false;
+                    for (int peer : peers[cell]) {
+                        seesFirst |= colours[peer] == first;
+                        seesSecond |= colours[peer] == first + 1;
+                    }
+                    if (seesFirst && seesSecond) {
+                        reduceCandidates |= removeCandidates(cell, bit);
+                    }
+                }
+                if (reduceCandidates) {
+                    involveChain(count, bit);
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Add the units linking the cells of the colour chain on the stack to the
+     * units involved in the current step.
+     * 
+     * @param count The number of cells of the chain.
+     * @param bit   The candidate.
+     */
+    private void involveChain(int count, long bit) {
+        if (!stepping) {
+            return;
+        }
+        for (int i = 0; i < count; i++) {
+            int cell = stack[i];
+            for (int unit : cellUnits[cell]) {
+                int mate = conjugate(unit, cell, bit);
+                if (mate > cell) { // Each link once, from its first cell.
+                    involve(unit);
+                }
+            }
+        }
+    }
+
+    /**
+     * Check if the candidate of the blank cell appears exactly twice in one of
+     * its units.
+     * 
+     * @param cell The cell index.
+     * @param bit  The candidate.
+     * @return true if the cell has a conjugate pair.
+     */
+    private boolean isConjugate(int cell, long bit) {
+        if (board[cell] != 0 || (candidates[cell] & bit) == 0) {
+            return false;
+        }
+        for (int unit : cellUnits[cell]) {
+            if (conjugate(unit, cell, bit) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Find the other cell of the unit with the candidate, if the candidate
+     * appears exactly twice in the unit.
+     * 
+     * @param unit The unit.
+     * @param cell The cell with the candidate.
+     * @param bit  The candidate.
+     * @return The other cell, or -1.
+     */
+    private int conjugate(int unit, int cell, long bit) {
+        int mate = -1;
+        for (int other : units[unit]) {
+            if (other != cell && board[other] == 0 && (candidates[other] & bit) != 0) {
+                if (mate >= 0) {
+                    return -1;
+                }
+                mate = other;
+            }
+        }
+        return mate;
+    }
+
+    /**
+     * Check if the two cells share a row, column or box.
+     * 
+     * @param a The first cell.
+     * @param b The second cell.
+     * @return true if they see each other.
+     */
+    private boolean sees(int a, int b) {
+        return rowOf[a] == rowOf[b] || colOf[a] == colOf[b] || index.boxOf[a] == index.boxOf[b];
+    }
+
+    /**
+     * Strategy built in the solver.
+     */
+    private static class Builtin implements SudokuStrategy {
+        private final int strategy; // Strategy number.
+
+        Builtin(int strategy) {
+            this.strategy = strategy;
+        }
+
+        @Override
+        public String getName() {
+            return STRATEGY_NAMES[strategy];
+        }
+
+        @Override
+        public boolean reduce(SudokuSolver solver) {
+            return solver.reduceBuiltin(strategy);
+        }
+    }
+
+    /**
+     * Class for hint.
+     */
+    public class Hint {
+        public final int row, col; // row and column of hint position.
+        public final int value; // hint value.
+        private List<Step> steps; // Steps leading to the hint, or null if not explaining.
+
+        public Hint(int row, int col, int value) {
+            this.row = row;
+            this.col = col;
+            this.value = value;
+        }
+
+        /**
+         * Get the steps leading to the hint: the reductions since the previous
+         * hint, and then the Nacked Single.
+         * 
+         * @return The steps, empty if not explaining.
+         */
+        public List<Step> getSteps() {
+            return steps == null ? Collections.<Step>emptyList() : steps;
+        }
+
+        @Override
+        public String toString() {
+            return "r" + row + "c" + col + " = " + value;
+        }
+    }
+
+    /**
+     * Class for a step of a strategy, to explain a hint.
+     */
+    public class Step {
+        public final int strategy; // Strategy of the step.
+        public final int[] units; // Units involved, rows, then columns, then boxes.
+        public final int[] cells; // Cells whose candidates were removed.
+        public final long[] removed; // Candidates removed from each cell, bit (value - 1).
+        public final long nanos; // Time taken by the step.
+        public final long scanned; // Number of cells read by the step.
+
+        Step(int strategy, int[] units, int[] cells, long[] removed, long nanos, long scanned) {
+            this.strategy = strategy;
+            this.units = units;
+            this.cells = cells;
+            this.removed = removed;
+            this.nanos = nanos;
+            this.scanned = scanned;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder(strategies[strategy].getName());
+            String separator = " in ";
+            for (int unit : units) {
+                text.append(separator).append(unit < side ? "row " : unit < side * 2 ? "column " : "box ")
+                        .append(unit % side);
+                separator = ", ";
+            }
+            for (int i = 0; i < cells.length; i++) {
+                text.append(i == 0 ? ": " : ", ").append("r").append(rowOf[cells[i]]).append("c")
+                        .append(colOf[cells[i]]).append(" -");
+                for (long mask = removed[i]; mask != 0; mask &= mask - 1) {
+                    text.append(" ").append(Long.numberOfTrailingZeros(mask) + 1);
+                }
+            }
+            return text.append(" (").append(scanned).append(" cells, ").append(nanos).append(" ns)").toString();
+        }
+    }
+}
@@ -0,0 +1,368 @@
+package sudoku;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Append-only file of quizzes in the SudokuCodec form.
+ * The data file starts with a magic number followed by the records, and the
+ * index file next to it, with ".idx" added to the name, has the offset of each
+ * record as 8 bytes. Appends are buffered and written by flush() or close(),
+ * the data before the index, so a crash loses at most the puzzles which are
+ * not in the index yet. Reads map both files in segments and decode a record
+ * from the mapped data without copying it, so quiz N is found in constant
+ * time.
+ */
+public final class SudokuStore implements Closeable {
+    private static final byte[] MAGIC = { 'S', 'U', 'D', 'O', 'K', 'U', '1', '\n' }; // Start of the data file.
+    private static final int SEGMENT = 1 << 30; // Bytes mapped at once, from a multiple of it.
+    private static final int BUFFER = 1 << 16; // Bytes of appends buffered before writing.
+
+    private final FileChannel data; // Data file, the magic number and the records.
+    private final FileChannel index; // Index file, the offset of each record.
+    private final List<MappedByteBuffer> dataMaps; // Mapped segments of the data file, or null if not mapped yet.
+    private final List<MappedByteBuffer> indexMaps; // Mapped segments of the index file, or null if not mapped yet.
+    private final ByteBuffer dataBuffer; // Records appended and not written yet.
+    private final ByteBuffer indexBuffer; // Offsets appended and not written yet.
+    private long count; // Number of quizzes, with the buffered ones.
+    private long written; // Number of quizzes written to the files.
+    private long end; // Length of the data file, with the buffered records.
+
+    /**
+     * Open the store, creating it if it does not exist.
+     * 
+     * @param path The data file. The index file is the same name with ".idx".
+     * @throws IOException If the files cannot be opened or are not a store.
+     */
+    public SudokuStore(Path path) throws IOException {
+        data = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            // Check the data file first, so that a file which is not a store gets no index file.
+            if (data.size() == 0) {
+                write(data, ByteBuffer.wrap(MAGIC), 0);
+            } else if (!hasMagic(data)) {
+                throw new IOException(path + " is not a puzzle store.");
+            }
+            index = FileChannel.open(indexPath(path), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            data.close();
+            throw e;
+        }
+        dataMaps = new ArrayList<>();
+        indexMaps = new ArrayList<>();
+        dataBuffer = ByteBuffer.allocate(BUFFER);
+        indexBuffer = ByteBuffer.allocate(BUFFER);
+
+        // Offsets of records whose writing was cut off are dropped.
+        count = written = index.size() / 8;
+        index.truncate(count * 8);
+        end = data.size();
+    }
+
+    /**
+     * Check if the file is a store.
+     * 
+     * @param path The data file.
+     * @return true if the file starts with the magic number of a store.
+     * @throws IOException If the file cannot be read.
+     */
+    public static boolean isStore(Path path) throws IOException {
+        if (!Files.isRegularFile(path)) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return hasMagic(channel);
+        }
+    }
+
+    /**
+     * Check the magic number of the data file.
+     * 
+     * @param channel The data file.
+     * @return true if the file starts with the magic number.
+     * @throws IOException If the file cannot be read.
+     */
+    private static boolean hasMagic(FileChannel channel) throws IOException {
+        ByteBuffer magic = ByteBuffer.allocate(MAGIC.length);
+        while (magic.hasRemaining() && channel.read(magic, magic.position()) > 0) {
+        }
+        return !magic.hasRemaining() && Arrays.equals(magic.array(), MAGIC);
+    }
+
+    /**
+     * Get the index file of the data file.
+     * 
+     * @param path The data file.
+     * @return The index file.
+     */
+    private static Path indexPath(Path path) {
+        return Paths.get(path.toString() + ".idx");
+    }
+
+    /**
+     * Get the number of quizzes.
+     * 
+     * @return The number of quizzes.
+     */
+    public synchronized long size() {
+        return count;
+    }
+
+    /**
+     * Append the quiz.
+     * 
+     * @param quiz The quiz.
+     * @return The number of the quiz, from 0.
+     * @throws IOException If the buffered appends cannot be written.
+     */
+    public long append(SudokuGrid quiz) throws IOException {
+        return append(SudokuCodec.encode(quiz));
+    }
+
+    /**
+     * Append the quiz.
+     * 
+     * @param size  The quiz size.
+     * @param cells The value of each cell, 0 for blank cells.
+     * @return The number of the quiz, from 0.
+     * @throws IOException If the buffered appends cannot be written.
+     */
+    long append(int size, byte[] cells) throws IOException {
+        return append(SudokuCodec.encode(size, cells));
+    }
+
+    /**
+     * Append the record.
+     * 
+     * @param record The record.
+     * @return The number of the quiz, from 0.
+     * @throws IOException If the buffered appends cannot be written.
+     */
+    private synchronized long append(byte[] record) throws IOException {
+        if (dataBuffer.remaining() < record.length || indexBuffer.remaining() < 8) {
+            flush();
+        }
+        dataBuffer.put(record); // A record is never longer than the buffer.
+        indexBuffer.putLong(end);
+        end += record.length;
+        return count++;
+    }
+
+    /**
+     * Write the buffered appends, the records before their offsets.
+     * 
+     * @throws IOException If the files cannot be written.
+     */
+    public synchronized void flush() throws IOException {
+        if (written == count) {
+            return;
+        }
+        dataBuffer.flip();
+        write(data, dataBuffer, end - dataBuffer.remaining());
+        dataBuffer.clear();
+        indexBuffer.flip();
+        write(index, indexBuffer, written * 8);
+        indexBuffer.clear();
+        written = count;
+    }
+
+    /**
+     * Write the whole buffer at the position.
+     * 
+     * @param channel  The file.
+     * @param buffer   The buffer.
+     * @param position The position in the file.
+     * @throws IOException If the file cannot be written.
+     */
+    private static void write(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    /**
+     * Read the quiz into the array, decoding it from the mapped file.
+     * 
+     * @param number The number of the quiz, from 0.
+     * @param cells  The value of each cell, filled. The length must match the
+     *               size of the quiz.
+     * @throws IOException If the files cannot be mapped or the record is
+     *                     malformed.
+     */
+    public synchronized void read(long number, byte[] cells) throws IOException {
+        if (number < 0 || number >= count) {
+            throw new IndexOutOfBoundsException("No puzzle " + number + " in " + count + " puzzles.");
+        }
+        flush();
+        ByteBuffer offsets = map(index, indexMaps, number * 8, 8);
+        long offset = offsets.getLong((int) (number * 8 % SEGMENT));
+        ByteBuffer records = map(data, dataMaps, offset, (int) Math.min(SudokuCodec.MAX_LENGTH, end - offset));
+        int position = (int) (offset % SEGMENT);
+        int size = records.get(position);
+        if (size * size * size * size != cells.length) {
+            throw new IllegalArgumentException("Puzzle " + number + " is of size " + size + ".");
+        }
+        if (SudokuCodec.decode(records, position, cells) < 0) {
+            throw new IOException("Malformed puzzle " + number + ".");
+        }
+    }
+
+    /**
+     * Read the quiz.
+     * 
+     * @param number The number of the quiz, from 0.
+     * @return The quiz.
+     * @throws IOException If the files cannot be mapped or the record is
+     *                     malformed.
+     */
+    public synchronized SudokuGrid get(long number) throws IOException {
+        int size = getSize(number);
+        int side = size * size;
+        byte[] cells = new byte[side * side];
+        read(number, cells);
+        return new SudokuGrid(side, cells);
+    }
+
+    /**
+     * Get the size of the quiz.
+     * 
+     * @param number The number of the quiz, from 0.
+     * @return The quiz size.
+     * @throws IOException If the files cannot be mapped.
+     */
+    public synchronized int getSize(long number) throws IOException {
+        if (number < 0 || number >= count) {
+            throw new IndexOutOfBoundsException("No puzzle " + number + " in " + count + " puzzles.");
+        }
+        flush();
+        ByteBuffer offsets = map(index, indexMaps, number * 8, 8);
+        long offset = offsets.getLong((int) (number * 8 % SEGMENT));
+        return map(data, dataMaps, offset, 1).get((int) (offset % SEGMENT));
+    }
+
+    /**
+     * Get the mapped segment of the file which holds the bytes. A segment is
+     * mapped with the length of a record past its end, so that a record which
+     * starts in the segment is whole in it.
+     * 
+     * @param channel  The file.
+     * @param maps     The mapped segments of the file.
+     * @param position The position of the bytes.
+     * @param length   The number of bytes.
+     * @return The segment, from the position SEGMENT * (position / SEGMENT).
+     * @throws IOException If the file cannot be mapped.
+     */
+    private static MappedByteBuffer map(FileChannel channel, List<MappedByteBuffer> maps, long position, int length)
+            throws IOException {
+        int segment = (int) (position / SEGMENT);
+        while (maps.size() <= segment) {
+            maps.add(null);
+        }
+        long base = (long) segment * SEGMENT;
+        MappedByteBuffer map = maps.get(segment);
+        if (map == null || base + map.capacity() < position + length) {
+            long limit = Math.min(channel.size(), base + SEGMENT + SudokuCodec.MAX_LENGTH);
+            map = channel.map(FileChannel.MapMode.READ_ONLY, base, limit - base);
+            maps.set(segment, map);
+        }
+        return map;
+    }
+
+    /**
+     * Append the puzzles of digit lines, one line of side * side characters per
+     * puzzle, '1' .. '9' for values and '.' or '0' for blank cells.
+     * 
+     * @param size The quiz size, 3 for the common 81 character lines.
+     * @param in   The lines.
+     * @return The number of puzzles appended. Malformed lines are skipped.
+     * @throws IOException If the lines cannot be read or the store cannot be
+     *                     written.
+     */
+    public long importLines(int size, InputStream in) throws IOException {
+        return importLines(size, in, null);
+    }
+
+    /**
+     * Append the puzzles of digit lines, skipping the puzzles equivalent to
+     * one already in the set.
+     * 
+     * @param size The quiz size, 3 for the common 81 character lines.
+     * @param in   The lines.
+     * @param seen The fingerprints of the puzzles seen, to which the appended
+     *             puzzles are added, or null to append all puzzles.
+     * @return The number of puzzles appended. Malformed lines are skipped.
+     * @throws IOException If the lines cannot be read or the store cannot be
+     *                     written.
+     */
+    public long importLines(int size, InputStream in, SudokuFingerprintSet seen) throws IOException {
+        int side = size * size;
+        byte[] cells = new byte[side * side];
+        byte[] buffer = new byte[1 << 16];
+        long appended = 0;
+        int length = 0;
+        boolean malformed = false;
+        while (true) {
+            int read = in.read(buffer);
+            for (int i = 0; i < Math.max(read, 1); i++) {
+                int c = read < 0 ? '\n' : buffer[i];
+                if (c == '\n') {
+                    if (length == cells.length && !malformed
+                            && (seen == null || seen.add(new SudokuGrid(side, cells)))) {
+                        append(size, cells);
+                        appended++;
+                    }
+                    length = 0;
+                    malformed = false;
+                } else if (c != '\r') {
+                    if (c >= '1' && c <= '0' + Math.min(side, 9) && length < cells.length) {
+                        cells[length] = (byte) (c - '0');
+                    } else if ((c == '.' || c == '0') && length < cells.length) {
+                        cells[length] = 0;
+                    } else {
+                        malformed = true;
+                    }
+                    length++;
+                }
+            }
+            if (read < 0) {
+                return appended;
+            }
+        }
+    }
+
+    /**
+     * Write the buffered appends and close the files.
+     * 
+     * @throws IOException If the files cannot be written or closed.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            if (index != null && index.isOpen()) {
+                flush();
+            }
+        } finally {
+            dataMaps.clear();
+            indexMaps.clear();
+            try {
+                data.close();
+            } finally {
+                if (index != null) {
+                    index.close();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package sudoku;
+
+/**
+ * Strategy of SudokuSolver which removes candidates.
+ * A strategy is registered once with SudokuPipeline.register() and is then
+ * used by the pipelines which name it. The solver runs a strategy until it
+ * fails, and does not run it again until any candidate has changed.
+ */
+interface SudokuStrategy {
+    /**
+     * Get the name of the strategy, unique among the registered strategies.
+     * 
+     * @return The name.
+     */
+    String getName();
+
+    /**
+     * Run one step of the strategy.
+     * 
+     * @param solver The solver, whose candidates are removed with
+     *               SudokuSolver.eliminate().
+     * @return true if any candidate was removed.
+     */
+    boolean reduce(SudokuSolver solver);
+}
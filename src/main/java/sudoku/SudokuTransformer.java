@@ -0,0 +1,160 @@
+package sudoku;
+
+import java.util.SplittableRandom;
+
+/**
+ * Equivalent quizzes of one checked quiz, made by symmetry instead of
+ * generating each quiz again.
+ * Each variant relabels the values, swaps the bands and the stacks, swaps the
+ * rows within each band and the columns within each stack, and transposes the
+ * grid, all at random. These keep the rules, so a variant of a quiz with a
+ * unique solution has a unique solution, the same variant of the solution, and
+ * needs no check. The strategies of SudokuSolver do not depend on the position
+ * or the label of the values, so the difficulty stays the same. Variants are
+ * not checked against each other, and the same variant may come again, which
+ * is rare except for 4x4 quizzes.
+ */
+public class SudokuTransformer {
+    private final int size; // Quiz size.
+    private final int side; // Number of cells in a row, column or box.
+    private final byte[] quiz; // Quiz to transform, value of cell row * side + col.
+    private final byte[] solution; // Solution of the quiz.
+
+    /**
+     * Constructor with a quiz which is checked for a unique solution here, once.
+     * 
+     * @param quiz The quiz.
+     */
+    public SudokuTransformer(SudokuGrid quiz) {
+        this.side = quiz.getSide();
+        this.size = (int) Math.round(Math.sqrt(side));
+        this.quiz = quiz.toBytes();
+        SudokuSearch search = new SudokuSearch(size);
+        if (search.countSolutions(this.quiz, 2) != 1) {
+            throw new IllegalArgumentException("Quiz must have a unique solution.");
+        }
+        this.solution = this.quiz.clone();
+        search.solve(solution);
+    }
+
+    /**
+     * Constructor with a quiz checked before and its solution.
+     * 
+     * @param quiz     The quiz, with a unique solution.
+     * @param solution The solution.
+     */
+    public SudokuTransformer(SudokuGrid quiz, SudokuGrid solution) {
+        if (quiz.getSide() != solution.getSide()) {
+            throw new IllegalArgumentException("Quiz and solution must have the same size.");
+        }
+        this.side = quiz.getSide();
+        this.size = (int) Math.round(Math.sqrt(side));
+        this.quiz = quiz.toBytes();
+        this.solution = solution.toBytes();
+
+        // The solution must be complete and agree with the clues.
+        SudokuIndex index = SudokuIndex.of(size);
+        for (int[] unit : index.units) {
+            long seen = 0;
+            for (int cell : unit) {
+                int value = this.solution[cell];
+                seen |= value < 1 || value > side ? 0 : 1L << (value - 1);
+            }
+            if (seen != index.all) {
+                throw new IllegalArgumentException("Solution must be a solved grid.");
+            }
+        }
+        for (int cell = 0; cell < this.quiz.length; cell++) {
+            if (this.quiz[cell] != 0 && this.quiz[cell] != this.solution[cell]) {
+                throw new IllegalArgumentException("Solution must agree with the quiz.");
+            }
+        }
+    }
+
+    /**
+     * Get the number of cells in a row, column or box.
+     * 
+     * @return The number of cells.
+     */
+    public int getSide() {
+        return side;
+    }
+
+    /**
+     * Make a variant.
+     * 
+     * @param random The random numbers.
+     * @return The quiz of the variant, then its solution.
+     */
+    public SudokuGrid[] next(SplittableRandom random) {
+        byte[] variant = new byte[side * side];
+        byte[] solved = new byte[side * side];
+        next(random, variant, solved);
+        return new SudokuGrid[] { new SudokuGrid(side, variant), new SudokuGrid(side, solved) };
+    }
+
+    /**
+     * Make a variant into the arrays.
+     * 
+     * @param random  The random numbers.
+     * @param variant The quiz of the variant, filled.
+     * @param solved  The solution of the variant, filled, or null if not
+     *                needed.
+     */
+    public void next(SplittableRandom random, byte[] variant, byte[] solved) {
+        int[] rows = lineOrder(random);
+        int[] cols = lineOrder(random);
+        byte[] labels = new byte[side + 1];
+        for (int value = 1; value <= side; value++) {
+            int other = 1 + random.nextInt(value);
+            labels[value] = labels[other];
+            labels[other] = (byte) value;
+        }
+        boolean transpose = random.nextBoolean();
+
+        for (int r = 0; r < side; r++) {
+            for (int c = 0; c < side; c++) {
+                int from = transpose ? rows[c] * side + cols[r] : rows[r] * side + cols[c];
+                variant[r * side + c] = labels[quiz[from]];
+                if (solved != null) {
+                    solved[r * side + c] = labels[solution[from]];
+                }
+            }
+        }
+    }
+
+    /**
+     * Make a random order of the lines, the bands in any order and the lines in
+     * any order within each band.
+     * 
+     * @param random The random numbers.
+     * @return The original line of each line.
+     */
+    private int[] lineOrder(SplittableRandom random) {
+        int[] bands = permutation(random);
+        int[] order = new int[side];
+        for (int band = 0; band < size; band++) {
+            int[] lines = permutation(random);
+            for (int i = 0; i < size; i++) {
+                order[band * size + i] = bands[band] * size + lines[i];
+            }
+        }
+        return order;
+    }
+
+    /**
+     * Make a random permutation of 0 .. size - 1.
+     * 
+     * @param random The random numbers.
+     * @return The permutation.
+     */
+    private int[] permutation(SplittableRandom random) {
+        int[] items = new int[size];
+        for (int i = 0; i < size; i++) {
+            int j = random.nextInt(i + 1);
+            items[i] = items[j];
+            items[j] = i;
+        }
+        return items;
+    }
+}
@@ -0,0 +1,77 @@
+package sudoku;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of SudokuCanonical and SudokuFingerprintSet: equivalent quizzes share a
+ * fingerprint, and different quizzes do not.
+ */
+class SudokuCanonicalTest {
+    @Test
+    void variantsShareTheFingerprint() {
+        SplittableRandom random = new SplittableRandom(4);
+        for (int size = 2; size <= 3; size++) {
+            SudokuCanonical canonical = new SudokuCanonical(size);
+            for (long seed = 0; seed < 5; seed++) {
+                SudokuQuiz quiz = new SudokuQuiz(size, Math.min(3, size * size - 1), seed);
+                quiz.newQuiz(true);
+                SudokuGrid grid = quiz.getQuizSnapshot();
+                long fingerprint = canonical.fingerprint(grid);
+                SudokuGrid form = canonical.canonicalize(grid);
+                SudokuTransformer transformer = new SudokuTransformer(grid);
+                for (int i = 0; i < 20; i++) {
+                    SudokuGrid variant = transformer.next(random)[0];
+                    assertEquals(fingerprint, canonical.fingerprint(variant), "size " + size);
+                    assertArrayEquals(form.toBytes(), canonical.canonicalize(variant).toBytes(), "size " + size);
+                }
+            }
+        }
+    }
+
+    @Test
+    void largerVariantsShareTheFingerprint() {
+        // Beyond 9x9 only relabelling and transposing are canonical.
+        SudokuQuiz quiz = new SudokuQuiz(4, 3, 9);
+        quiz.newQuiz(true);
+        SudokuGrid grid = quiz.getQuizSnapshot();
+        int side = grid.getSide();
+        byte[] variant = new byte[side * side];
+        for (int r = 0; r < side; r++) {
+            for (int c = 0; c < side; c++) {
+                int value = grid.get(c, r);
+                variant[r * side + c] = (byte) (value == 0 ? 0 : side + 1 - value);
+            }
+        }
+        SudokuCanonical canonical = new SudokuCanonical(4);
+        assertEquals(canonical.fingerprint(grid), canonical.fingerprint(new SudokuGrid(side, variant)));
+    }
+
+    @Test
+    void differentQuizzesDiffer() {
+        SudokuCanonical canonical = new SudokuCanonical(3);
+        SudokuFingerprintSet seen = new SudokuFingerprintSet();
+        for (String line : SudokuSolverTest.HARD) {
+            SudokuGrid grid = SudokuServer.parse(line);
+            assertTrue(seen.add(grid));
+            assertEquals(canonical.fingerprint(grid), seen.fingerprint(grid));
+        }
+        assertEquals(SudokuSolverTest.HARD.length, seen.size());
+        assertNotEquals(canonical.fingerprint(SudokuServer.parse(SudokuSolverTest.HARD[0])),
+                canonical.fingerprint(SudokuServer.parse(SudokuSolverTest.HARD[1])));
+
+        // A variant of a quiz seen is seen, and adding it again changes nothing.
+        SudokuGrid variant = new SudokuTransformer(SudokuServer.parse(SudokuSolverTest.HARD[3]))
+                .next(new SplittableRandom(5))[0];
+        assertTrue(seen.contains(variant));
+        assertFalse(seen.add(variant));
+        assertEquals(SudokuSolverTest.HARD.length, seen.size());
+    }
+}
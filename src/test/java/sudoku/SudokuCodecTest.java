@@ -0,0 +1,109 @@
+package sudoku;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of SudokuCodec: round trips of every size, and malformed records.
+ */
+class SudokuCodecTest {
+    @Test
+    void roundTripsEverySize() {
+        SplittableRandom random = new SplittableRandom(1);
+        for (int size = 2; size <= 8; size++) {
+            for (int i = 0; i < 20; i++) {
+                byte[] cells = randomCells(size, random);
+                byte[] record = SudokuCodec.encode(size, cells);
+                assertEquals(SudokuCodec.length(size, clues(cells)), record.length);
+                assertArrayEquals(cells, SudokuCodec.decode(record).toBytes(), "size " + size);
+            }
+        }
+    }
+
+    @Test
+    void encodesNineByNineCompactly() {
+        byte[] cells = SudokuServer.parse(SudokuSolverTest.HARD[0]).toBytes();
+        assertEquals(1 + 11 + (clues(cells) * 4 + 7) / 8, SudokuCodec.encode(3, cells).length);
+    }
+
+    @Test
+    void rejectsTruncatedRecords() {
+        byte[] record = SudokuCodec.encode(3, SudokuServer.parse(SudokuSolverTest.HARD[1]).toBytes());
+        for (int length = 0; length < record.length; length++) {
+            byte[] prefix = Arrays.copyOf(record, length);
+            assertThrows(IllegalArgumentException.class, () -> SudokuCodec.decode(prefix), "length " + length);
+        }
+    }
+
+    @Test
+    void rejectsTrailingBytes() {
+        byte[] record = SudokuCodec.encode(3, SudokuServer.parse(SudokuSolverTest.HARD[1]).toBytes());
+        byte[] longer = Arrays.copyOf(record, record.length + 5);
+        assertThrows(IllegalArgumentException.class, () -> SudokuCodec.decode(longer));
+    }
+
+    @Test
+    void rejectsPaddingBits() {
+        SplittableRandom random = new SplittableRandom(2);
+        for (int size = 2; size <= 5; size++) {
+            byte[] cells = randomCells(size, random);
+            byte[] record = SudokuCodec.encode(size, cells);
+
+            // Any changed bit gives another quiz or no quiz, never the same one.
+            for (int bit = 8; bit < record.length * 8; bit++) {
+                byte[] changed = record.clone();
+                changed[bit / 8] ^= 1 << (bit % 8);
+                try {
+                    assertFalse(Arrays.equals(cells, SudokuCodec.decode(changed).toBytes()), "bit " + bit);
+                } catch (IllegalArgumentException e) {
+                    // Rejected.
+                }
+            }
+        }
+    }
+
+    @Test
+    void rejectsBadSizesAndValues() {
+        assertThrows(IllegalArgumentException.class, () -> SudokuCodec.decode(new byte[] { 9 }));
+        byte[] cells = new byte[16];
+        cells[0] = 4;
+        byte[] record = SudokuCodec.encode(2, cells);
+        record[record.length - 1] = 0x0f; // Value 16 in a 4x4 quiz.
+        assertThrows(IllegalArgumentException.class, () -> SudokuCodec.decode(record));
+    }
+
+    /**
+     * Make random cells with about a third of the cells set.
+     * 
+     * @param size   The quiz size.
+     * @param random The random numbers.
+     * @return The cells.
+     */
+    static byte[] randomCells(int size, SplittableRandom random) {
+        int side = size * size;
+        byte[] cells = new byte[side * side];
+        for (int cell = 0; cell < cells.length; cell++) {
+            if (random.nextInt(3) == 0) {
+                cells[cell] = (byte) (1 + random.nextInt(side));
+            }
+        }
+        return cells;
+    }
+
+    private static int clues(byte[] cells) {
+        int clues = 0;
+        for (byte value : cells) {
+            if (value != 0) {
+                clues++;
+            }
+        }
+        return clues;
+    }
+}
@@ -0,0 +1,86 @@
+package sudoku;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of SudokuQuiz: seeded quizzes, score bands and the edits.
+ */
+class SudokuQuizTest {
+    @Test
+    void seedsRepeatQuizzes() {
+        SudokuQuiz quiz = new SudokuQuiz(3, 5, 42);
+        quiz.newQuiz(true);
+        SudokuQuiz again = new SudokuQuiz(3, 5, 0);
+        again.newQuiz(quiz.getSeed(), true);
+        assertArrayEquals(quiz.getQuizSnapshot().toBytes(), again.getQuizSnapshot().toBytes());
+        assertEquals(quiz.getSeed(), again.getSeed());
+        assertTrue(quiz.isUnique());
+    }
+
+    @Test
+    void landsInTheScoreBand() {
+        int[][] bands = { { 60, 80 }, { 120, 160 }, { 200, 300 } };
+        for (int[] band : bands) {
+            for (long seed = 0; seed < (band[0] < 200 ? 10 : 2); seed++) {
+                SudokuQuiz quiz = new SudokuQuiz(3, 5);
+                quiz.newQuiz(seed, band[0], band[1]);
+                int score = new SudokuRating(quiz).getScore();
+                assertTrue(score >= band[0] && score <= band[1], band[0] + " .. " + band[1] + ": " + score);
+                assertTrue(quiz.isUnique());
+                assertEquals(seed, quiz.getSeed());
+            }
+        }
+    }
+
+    @Test
+    void keepsTheQuizWhenTheBandIsMissed() {
+        SudokuQuiz quiz = new SudokuQuiz(2, 3, 7);
+        quiz.newQuiz(true);
+        byte[] before = quiz.getQuizSnapshot().toBytes();
+        long seed = quiz.getSeed();
+        int max = SudokuRating.getMaxScore(2);
+        assertThrows(IllegalStateException.class, () -> quiz.newQuiz(1, max, max));
+        assertArrayEquals(before, quiz.getQuizSnapshot().toBytes());
+        assertEquals(seed, quiz.getSeed());
+
+        // The random numbers are as before, so the next quiz is the same.
+        SudokuQuiz other = new SudokuQuiz(2, 3, 7);
+        other.newQuiz(true);
+        quiz.newQuiz(true);
+        other.newQuiz(true);
+        assertArrayEquals(other.getQuizSnapshot().toBytes(), quiz.getQuizSnapshot().toBytes());
+    }
+
+    @Test
+    void rejectsBadBands() {
+        SudokuQuiz quiz = new SudokuQuiz(3, 5);
+        assertThrows(IllegalArgumentException.class, () -> quiz.newQuiz(100, 50));
+        assertThrows(IllegalArgumentException.class,
+                () -> quiz.newQuiz(SudokuRating.getMaxScore(3) + 1, Integer.MAX_VALUE));
+    }
+
+    @Test
+    void undoesEdits() {
+        SudokuQuiz quiz = new SudokuQuiz(3, 5, 8);
+        quiz.newQuiz(true);
+        int[][] before = quiz.getBoard();
+        int side = quiz.getSide();
+        int edits = 0;
+        for (int cell = 0; cell < side * side && edits < 10; cell++) {
+            if (!quiz.isFixed(cell / side, cell % side)) {
+                quiz.setValue(cell / side, cell % side, 1 + cell % side);
+                edits++;
+            }
+        }
+        while (quiz.undo() != null) {
+            edits--;
+        }
+        assertEquals(0, edits);
+        assertArrayEquals(before, quiz.getBoard());
+    }
+}
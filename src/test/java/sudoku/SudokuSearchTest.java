@@ -0,0 +1,86 @@
+package sudoku;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of SudokuSearch: solving, counting with early exit and the node limit.
+ */
+class SudokuSearchTest {
+    @Test
+    void solvesAndCountsSolutions() {
+        for (String line : SudokuSolverTest.HARD) {
+            byte[] board = SudokuServer.parse(line).toBytes();
+            SudokuSearch search = new SudokuSearch(3);
+            assertEquals(1, search.countSolutions(board, 2));
+            assertTrue(search.solve(board));
+            assertTrue(isSolved(board, 3));
+        }
+    }
+
+    @Test
+    void stopsCountingAtTheLimit() {
+        SudokuSearch search = new SudokuSearch(3);
+        assertEquals(2, search.countSolutions(new byte[81], 2));
+        assertEquals(5, search.countSolutions(new byte[81], 5));
+    }
+
+    @Test
+    void detectsConflicts() {
+        byte[] board = new byte[81];
+        board[0] = 1;
+        board[1] = 1;
+        SudokuSearch search = new SudokuSearch(3);
+        assertEquals(0, search.countSolutions(board, 2));
+        assertFalse(search.solve(board));
+    }
+
+    @Test
+    void solvesEmptyBoardsOfEverySize() {
+        for (int size = 2; size <= 6; size++) {
+            byte[] board = new byte[size * size * size * size];
+            assertTrue(new SudokuSearch(size).solve(board), "size " + size);
+            assertTrue(isSolved(board, size), "size " + size);
+        }
+    }
+
+    @Test
+    void runsOutOfNodes() {
+        SudokuSearch search = new SudokuSearch(3);
+        search.setNodeLimit(1);
+        byte[] board = SudokuServer.parse(SudokuSolverTest.HARD[0]).toBytes();
+        assertFalse(search.solve(board));
+        assertTrue(search.isExhausted());
+
+        search.setNodeLimit(Long.MAX_VALUE);
+        assertTrue(search.solve(board));
+        assertFalse(search.isExhausted());
+    }
+
+    /**
+     * Check that the board is filled without conflicts.
+     * 
+     * @param board The board.
+     * @param size  The quiz size.
+     * @return true if solved.
+     */
+    static boolean isSolved(byte[] board, int size) {
+        SudokuIndex index = SudokuIndex.of(size);
+        for (int[] unit : index.units) {
+            long seen = 0;
+            for (int cell : unit) {
+                if (board[cell] == 0) {
+                    return false;
+                }
+                seen |= 1L << (board[cell] - 1);
+            }
+            if (seen != index.all) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,92 @@
+package sudoku;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of SudokuSession: the hints while setting and undoing values agree with
+ * the solution, and the solver is rebuilt only after changes it cannot follow.
+ */
+class SudokuSessionTest {
+    @Test
+    void followsSetAndUndo() {
+        for (long seed = 0; seed < 20; seed++) {
+            SudokuQuiz quiz = new SudokuQuiz(3, 5, seed);
+            quiz.newQuiz(true);
+            int[][] solution = solve(quiz);
+            SudokuSession session = new SudokuSession(quiz);
+            int placed = 0;
+            for (SudokuSolver.Hint hint = session.getHint(); hint != null; hint = session.getHint()) {
+                check(quiz, solution, hint);
+                assertTrue(quiz.setValue(hint.row, hint.col, hint.value));
+                if (++placed % 3 == 0) {
+                    quiz.undo();
+                    check(quiz, solution, session.getHint());
+                    quiz.undo();
+                    check(quiz, solution, session.getHint());
+                }
+            }
+            assertTrue(quiz.isSolved(), "seed " + seed);
+            assertEquals(1, session.getRebuilds(), "seed " + seed);
+            session.close();
+        }
+    }
+
+    @Test
+    void rebuildsAfterChangesItCannotFollow() {
+        SudokuQuiz quiz = new SudokuQuiz(3, 5, 6);
+        quiz.newQuiz(true);
+        int[][] solution = solve(quiz);
+        SudokuSession session = new SudokuSession(quiz);
+        SudokuSolver.Hint hint = session.getHint();
+        assertTrue(quiz.setValue(hint.row, hint.col, hint.value));
+        quiz.resetQuiz();
+        check(quiz, solution, session.getHint());
+        assertEquals(2, session.getRebuilds());
+
+        // A value already in the row is not a candidate.
+        hint = session.getHint();
+        int value = 0;
+        for (int col = 0; value == 0; col++) {
+            value = quiz.getValue(hint.row, col);
+        }
+        assertFalse(quiz.setValue(hint.row, hint.col, value));
+        session.getHint();
+        assertEquals(3, session.getRebuilds());
+
+        // Taking it back rebuilds the solver again.
+        quiz.undo();
+        check(quiz, solution, session.getHint());
+        assertEquals(4, session.getRebuilds());
+        session.close();
+    }
+
+    /**
+     * Solve the quiz.
+     * 
+     * @param quiz The quiz.
+     * @return The solution.
+     */
+    private static int[][] solve(SudokuQuiz quiz) {
+        int[][] solution = quiz.getQuiz();
+        assertTrue(new SudokuSearch(quiz.getSize()).solve(solution));
+        return solution;
+    }
+
+    /**
+     * Check that the hint is for a blank cell and agrees with the solution.
+     * 
+     * @param quiz     The quiz.
+     * @param solution The solution.
+     * @param hint     The hint.
+     */
+    private static void check(SudokuQuiz quiz, int[][] solution, SudokuSolver.Hint hint) {
+        assertNotNull(hint);
+        assertEquals(0, quiz.getValue(hint.row, hint.col), hint.toString());
+        assertEquals(solution[hint.row][hint.col], hint.value, hint.toString());
+    }
+}
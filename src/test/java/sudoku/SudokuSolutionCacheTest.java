@@ -0,0 +1,69 @@
+package sudoku;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of SudokuSolutionCache: results, hits and eviction within the limits.
+ */
+class SudokuSolutionCacheTest {
+    @Test
+    void solvesAndHits() {
+        SudokuSolutionCache cache = new SudokuSolutionCache(16, 1 << 20);
+        SudokuGrid quiz = SudokuServer.parse(SudokuSolverTest.HARD[0]);
+        SudokuSolutionCache.Result result = cache.get(quiz);
+        byte[] solution = quiz.toBytes();
+        assertTrue(new SudokuSearch(3).solve(solution));
+        assertEquals(9, result.getSolution().getSide());
+        for (int cell = 0; cell < 81; cell++) {
+            assertEquals(solution[cell], result.getSolution().get(cell));
+        }
+        for (int i = 0; i < result.getHintCount(); i++) {
+            assertEquals(solution[result.getHintRow(i) * 9 + result.getHintCol(i)], result.getHintValue(i));
+        }
+        assertSame(result, cache.get(SudokuServer.parse(SudokuSolverTest.HARD[0])));
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    void reportsNoSolution() {
+        byte[] cells = new byte[81];
+        cells[0] = 1;
+        cells[1] = 1;
+        SudokuSolutionCache.Result result = new SudokuSolutionCache(4, 1 << 16).get(new SudokuGrid(9, cells));
+        assertNull(result.getSolution());
+    }
+
+    @Test
+    void evictsWithinTheLimits() {
+        int maxEntries = 8;
+        long maxWeight = 1 << 12;
+        SudokuSolutionCache cache = new SudokuSolutionCache(maxEntries, maxWeight);
+        for (long seed = 0; seed < 40; seed++) {
+            SudokuQuiz quiz = new SudokuQuiz(3, 3, seed);
+            quiz.newQuiz(true);
+            cache.get(quiz);
+            assertTrue(cache.size() <= maxEntries, cache.toString());
+            assertTrue(cache.getWeight() <= maxWeight, cache.toString());
+        }
+        assertEquals(40, cache.getMisses());
+        assertTrue(cache.getEvictions() >= 40 - maxEntries, cache.toString());
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getWeight());
+    }
+
+    @Test
+    void runsOutOfNodesWithoutCaching() {
+        SudokuSolutionCache cache = new SudokuSolutionCache(4, 1 << 16, SudokuPipeline.SINGLES, 1);
+        byte[] cells = new byte[256];
+        assertThrows(IllegalStateException.class, () -> cache.get(new SudokuGrid(16, cells)));
+        assertEquals(0, cache.size());
+    }
+}
@@ -0,0 +1,88 @@
+package sudoku;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of SudokuSolver: every hint and every elimination must agree with the
+ * unique solution, and every step must report the units it used.
+ */
+class SudokuSolverTest {
+    // Puzzles needing more than singles, in the batch line form.
+    static final String[] HARD = {
+            "8..........36......7..9.2...5...7.......457.....1...3...1....68..85...1..9....4..",
+            "4.....8.5.3..........7......2.....6.....8.4......1.......6.3.7.5..2.....1.4......",
+            "52...6.........7.13...........4..8..6......5...........418.........3..2...87.....",
+            "1.......2.9.4...5...6...7...5.9.3.......7.......85..4.7.....6...3...9.8...2.....1",
+            "....7...36....841...7..4.....372....5...1...4..2...5......379.22..4...6..3....8..", // Swordfish.
+            "7.......324..67..5.....46....8..1.2..59...3.....8.6..7...2..9..3...8.75...4..3...", // Swordfish.
+            "7.....4.5.28.36...............8......3.....59..1.42.7.6.........5..27.1..1...4..7", // X-Wing, XY-Wing.
+            "2.6.1..97...3...6.4...........7.8.........4.96.8.5.7....78..92..8...3........16..", // Colouring.
+    };
+
+    @Test
+    void hintsAndEliminationsMatchTheSolution() {
+        int[] used = new int[SudokuSolver.STRATEGIES];
+        for (long seed = 0; seed < 100; seed++) {
+            SudokuQuiz quiz = new SudokuQuiz(3, 6, seed);
+            quiz.newQuiz(true);
+            check(quiz, used);
+        }
+        for (String line : HARD) {
+            SudokuQuiz quiz = new SudokuQuiz(3, 5);
+            quiz.loadQuiz(SudokuServer.parse(line).toArray());
+            check(quiz, used);
+        }
+        for (int strategy = 0; strategy < SudokuSolver.STRATEGIES; strategy++) {
+            assertTrue(used[strategy] > 0, SudokuSolver.STRATEGY_NAMES[strategy] + " never fired");
+        }
+    }
+
+    @Test
+    void solvesLargerBoards() {
+        for (int size = 2; size <= 4; size++) {
+            SudokuQuiz quiz = new SudokuQuiz(size, Math.min(3, size * size - 1), size);
+            quiz.newQuiz(true);
+            check(quiz, new int[SudokuSolver.STRATEGIES]);
+        }
+    }
+
+    @Test
+    void streamStopsWhenCancelled() {
+        SudokuQuiz quiz = new SudokuQuiz(3, 5, 1);
+        quiz.newQuiz(true);
+        SudokuSolver solver = new SudokuSolver(quiz);
+        assertNotNull(solver.nextHint());
+        solver.cancel();
+        assertEquals(0, solver.stream().count());
+    }
+
+    /**
+     * Explain the hints of the quiz and check them against its solution.
+     * 
+     * @param quiz The quiz, with a unique solution.
+     * @param used Number of steps of each strategy, added to.
+     */
+    private static void check(SudokuQuiz quiz, int[] used) {
+        int side = quiz.getSide();
+        int[][] solution = quiz.getQuiz();
+        assertTrue(new SudokuSearch(quiz.getSize()).solve(solution));
+
+        SudokuSolver solver = new SudokuSolver(quiz);
+        solver.setExplaining(true);
+        for (SudokuSolver.Hint hint : solver) {
+            assertEquals(solution[hint.row][hint.col], hint.value, hint.toString());
+            for (SudokuSolver.Step step : hint.getSteps()) {
+                used[step.strategy]++;
+                assertTrue(step.units.length > 0, step.toString());
+                for (int i = 0; i < step.cells.length; i++) {
+                    int value = solution[step.cells[i] / side][step.cells[i] % side];
+                    assertEquals(0, step.removed[i] & (1L << (value - 1)), step.toString());
+                }
+            }
+        }
+    }
+}
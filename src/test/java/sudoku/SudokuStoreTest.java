@@ -0,0 +1,83 @@
+package sudoku;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests of SudokuStore: round trips through the files, and reopening them.
+ */
+class SudokuStoreTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void roundTripsAcrossReopening() throws IOException {
+        Path path = dir.resolve("quizzes.sudoku");
+        SplittableRandom random = new SplittableRandom(3);
+        List<byte[]> cells = new ArrayList<>();
+        List<Integer> sizes = new ArrayList<>();
+        try (SudokuStore store = new SudokuStore(path)) {
+            for (int i = 0; i < 500; i++) {
+                int size = 2 + random.nextInt(4);
+                byte[] quiz = SudokuCodecTest.randomCells(size, random);
+                assertEquals(i, store.append(size, quiz));
+                cells.add(quiz);
+                sizes.add(size);
+            }
+            // Read back before and after the appends are flushed.
+            assertArrayEquals(cells.get(7), store.get(7).toBytes());
+            store.flush();
+            assertArrayEquals(cells.get(499), store.get(499).toBytes());
+        }
+        assertTrue(SudokuStore.isStore(path));
+        try (SudokuStore store = new SudokuStore(path)) {
+            assertEquals(cells.size(), store.size());
+            for (int i = 0; i < cells.size(); i++) {
+                assertEquals(sizes.get(i), store.getSize(i));
+                assertArrayEquals(cells.get(i), store.get(i).toBytes(), "quiz " + i);
+            }
+            assertThrows(IndexOutOfBoundsException.class, () -> store.get(cells.size()));
+        }
+    }
+
+    @Test
+    void importsLinesSkippingMalformedAndSeen() throws IOException {
+        StringBuilder lines = new StringBuilder();
+        for (String line : SudokuSolverTest.HARD) {
+            lines.append(line).append('\n');
+        }
+        lines.append("not a quiz\n").append(SudokuSolverTest.HARD[0]).append('\n');
+        try (SudokuStore store = new SudokuStore(dir.resolve("imported.sudoku"))) {
+            long appended = store.importLines(3,
+                    new ByteArrayInputStream(lines.toString().getBytes(StandardCharsets.US_ASCII)),
+                    new SudokuFingerprintSet());
+            assertEquals(SudokuSolverTest.HARD.length, appended);
+            assertEquals(appended, store.size());
+            assertArrayEquals(SudokuServer.parse(SudokuSolverTest.HARD[2]).toBytes(), store.get(2).toBytes());
+        }
+    }
+
+    @Test
+    void leavesOtherFilesAlone() throws IOException {
+        Path path = dir.resolve("other.txt");
+        Files.writeString(path, "not a store");
+        assertFalse(SudokuStore.isStore(path));
+        assertThrows(IOException.class, () -> new SudokuStore(path));
+        assertFalse(Files.exists(dir.resolve("other.txt.idx")));
+    }
+}